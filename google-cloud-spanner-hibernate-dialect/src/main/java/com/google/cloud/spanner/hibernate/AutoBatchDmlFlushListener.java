@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import com.google.cloud.spanner.DmlBatchUpdateCountVerificationFailedException;
+import com.google.cloud.spanner.jdbc.CloudSpannerJdbcConnection;
+import com.google.cloud.spanner.jdbc.JdbcSqlException;
+import com.google.common.base.Throwables;
+import com.google.rpc.Code;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.hibernate.Interceptor;
+import org.hibernate.StaleStateException;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+
+/**
+ * Flush listeners that enable automatic DML batching in the Spanner JDBC driver while Hibernate
+ * flushes a session, if {@link SpannerSettings#AUTO_BATCH_DML} has been enabled for the session
+ * factory, or with an {@link AutoBatchDml} annotation for the current transaction.
+ *
+ * <p>The {@link BeforeFlush} listener runs before the default Hibernate flush listener and enables
+ * 'auto_batch_dml' for the current transaction. The JDBC driver then buffers all DML statements
+ * that are generated by the flush. The {@link AfterFlush} listener runs after the default flush
+ * listener, sends all buffered statements to Spanner in one ExecuteBatchDml request, and disables
+ * 'auto_batch_dml' again. The driver verifies that the update counts that are returned by Spanner
+ * are equal to the update counts that it returned to Hibernate while buffering the statements. A
+ * difference means that a versioned entity was concurrently modified, and is reported to Hibernate
+ * as a {@link StaleStateException}.
+ *
+ * <p>The flush that is executed when a transaction is committed also uses automatic DML batching if
+ * {@link SpannerSettings#LAST_STATEMENT_AT_COMMIT} has been enabled. The {@link AfterFlush}
+ * listener then leaves the buffered statements in the driver, which executes them directly before
+ * it commits the transaction.
+ */
+final class AutoBatchDmlFlushListener {
+
+  private static final SpannerSessionSettings ENABLE =
+      SpannerSessionSettings.newBuilder()
+          .setAutoBatchDml(true)
+          .setAutoBatchDmlUpdateCountVerification(true)
+          .build();
+
+  private static final SpannerSessionSettings DISABLE =
+      SpannerSessionSettings.newBuilder().setAutoBatchDml(false).build();
+
+  /** The value of {@link SpannerSettings#AUTO_BATCH_DML} in the session factory configuration. */
+  private final boolean autoBatchDml;
+
+  /** The value of {@link SpannerSettings#LAST_STATEMENT_AT_COMMIT}. */
+  private final boolean lastStatementAtCommit;
+
+  AutoBatchDmlFlushListener(boolean autoBatchDml, boolean lastStatementAtCommit) {
+    this.autoBatchDml = autoBatchDml;
+    this.lastStatementAtCommit = lastStatementAtCommit;
+  }
+
+  /** Enables automatic DML batching before the session is flushed. */
+  static final class BeforeFlush implements FlushEventListener, AutoFlushEventListener {
+    private final AutoBatchDmlFlushListener listener;
+
+    BeforeFlush(AutoBatchDmlFlushListener listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+      listener.beforeFlush(event.getSession(), true);
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+      listener.beforeFlush(event.getSession(), false);
+    }
+  }
+
+  /** Executes the buffered DML statements and disables automatic DML batching after a flush. */
+  static final class AfterFlush implements FlushEventListener, AutoFlushEventListener {
+    private final AutoBatchDmlFlushListener listener;
+
+    AfterFlush(AutoBatchDmlFlushListener listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+      listener.afterFlush(event.getSession(), true);
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+      listener.afterFlush(event.getSession(), false);
+    }
+  }
+
+  private void beforeFlush(EventSource session, boolean explicitFlush) {
+    boolean lastStatementAtCommit = isLastStatementAtCommit(session, explicitFlush);
+    if (!lastStatementAtCommit && !isAutoBatchDml(session)) {
+      return;
+    }
+    if (!session.doReturningWork(AutoBatchDmlFlushListener::isReadWriteTransaction)) {
+      return;
+    }
+    if (lastStatementAtCommit) {
+      // The buffered statements are executed by the commit, and the previous values of the
+      // variables are restored when the transaction has ended.
+      SpannerSessionSettings.apply(session, ENABLE);
+    } else {
+      boolean postgres = SpannerSessionSettings.usesPostgresDialect(session.getSessionFactory());
+      session.doWork(connection -> ENABLE.applyTo(connection, postgres));
+    }
+  }
+
+  private void afterFlush(EventSource session, boolean explicitFlush) {
+    if (isLastStatementAtCommit(session, explicitFlush)) {
+      // Leave the buffered statements in the driver. They are executed when the transaction is
+      // committed, and 'auto_batch_dml' is reset when the transaction has ended.
+      return;
+    }
+    if (!isAutoBatchDml(session)) {
+      return;
+    }
+    boolean postgres = SpannerSessionSettings.usesPostgresDialect(session.getSessionFactory());
+    session.doWork(
+        connection -> {
+          if (isReadWriteTransaction(connection)) {
+            runBatch(connection);
+            DISABLE.applyTo(connection, postgres);
+          }
+        });
+  }
+
+  /**
+   * Sends the DML statements that the driver has buffered to Spanner. The flush did not execute any
+   * DML statements if the driver has no active batch.
+   */
+  private static void runBatch(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("RUN BATCH");
+    } catch (SQLException sqlException) {
+      if (Throwables.getCausalChain(sqlException).stream()
+          .anyMatch(DmlBatchUpdateCountVerificationFailedException.class::isInstance)) {
+        throw new StaleStateException(
+            "Batch update returned unexpected row count: " + sqlException.getMessage());
+      }
+      if (!isNoActiveBatch(sqlException)) {
+        throw sqlException;
+      }
+    }
+  }
+
+  /** Returns true if the given exception was thrown because the driver had no active batch. */
+  private static boolean isNoActiveBatch(SQLException sqlException) {
+    return !(sqlException instanceof BatchUpdateException)
+        && sqlException instanceof JdbcSqlException
+        && ((JdbcSqlException) sqlException).getCode() == Code.FAILED_PRECONDITION;
+  }
+
+  /**
+   * Returns true if the statements of this flush should be executed as the last statements of the
+   * transaction. Only a flush that is not an auto-flush can be the commit flush.
+   */
+  private boolean isLastStatementAtCommit(EventSource session, boolean explicitFlush) {
+    return lastStatementAtCommit
+        && explicitFlush
+        && SpannerTransactionCoordinatorBuilder.getCommitFlush(session) != null;
+  }
+
+  /**
+   * Returns true if the flushes of the current transaction of the session use automatic DML
+   * batching. An {@link AutoBatchDml} annotation on the method that started the transaction
+   * overrides the setting of the session factory.
+   */
+  private boolean isAutoBatchDml(EventSource session) {
+    Interceptor interceptor = session.getInterceptor();
+    if (interceptor instanceof AbstractTransactionTagInterceptor
+        && session.isTransactionInProgress()) {
+      Boolean override =
+          ((AbstractTransactionTagInterceptor) interceptor)
+              .getAutoBatchDml(session.accessTransaction());
+      if (override != null) {
+        return override;
+      }
+    }
+    return autoBatchDml;
+  }
+
+  /**
+   * Automatic DML batching is only used for Spanner connections that have an active read/write
+   * transaction.
+   */
+  private static boolean isReadWriteTransaction(Connection connection) throws SQLException {
+    return connection.isWrapperFor(CloudSpannerJdbcConnection.class)
+        && !connection.getAutoCommit()
+        && !connection.isReadOnly();
+  }
+}
@@ -91,6 +91,9 @@ public @interface Interleaved {
    * Indicates whether when a row from the parent table is deleted that the child rows in this table
    * will automatically be deleted as well. (default = false)
    *
+   * <p>Hibernate still deletes the children of a removed parent one by one if the collection
+   * cascades removes, unless {@link SpannerSettings#INTERLEAVED_CASCADE_DELETE} is enabled.
+   *
    * @return <code>true</code> if ON DELETE CASCADE should be added to the CREATE TABLE string.
    */
   boolean cascadeDelete() default false;
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.hibernate.SpannerMutationFactory.Operation;
+import com.google.cloud.spanner.hibernate.SpannerTransactionCoordinatorBuilder.CommitFlush;
+import com.google.cloud.spanner.jdbc.CloudSpannerJdbcConnection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PreDeleteEvent;
+import org.hibernate.event.spi.PreDeleteEventListener;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Event listener that writes the entity inserts, updates and deletes of a flush as Spanner
+ * mutations when {@link SpannerSettings#USE_MUTATIONS} has been enabled.
+ *
+ * <p>Only the flush that is executed when a read/write transaction is committed is a candidate for
+ * mutations. {@link SpannerTransactionCoordinatorBuilder} marks this flush for the session. The
+ * first entity action of the flush then checks whether all pending actions in the persistence
+ * context can be written as mutations. Mutations are only used if that is the case, as mutations
+ * are applied at commit, after any DML statement that Hibernate would execute for the remaining
+ * actions. The pre-insert, pre-update and pre-delete listeners buffer a mutation for each action on
+ * the JDBC connection and veto the DML statement that Hibernate would otherwise execute.
+ */
+final class MutationFlushListener
+    implements PreInsertEventListener, PreUpdateEventListener, PreDeleteEventListener {
+
+  private final SpannerMutationFactory mutationFactory = new SpannerMutationFactory();
+
+  @Override
+  public boolean onPreInsert(PreInsertEvent event) {
+    EventSource session = getFlushingSession(event.getSession());
+    if (session == null) {
+      return false;
+    }
+    bufferedWrite(
+        session,
+        mutationFactory.createInsert(
+            event.getPersister(), event.getId(), event.getState(), session));
+    // Hibernate skips the post-insert handling of the entity entry when an insert is vetoed.
+    EntityEntry entry = session.getPersistenceContextInternal().getEntry(event.getEntity());
+    if (entry != null) {
+      entry.postInsert(event.getState());
+    }
+    return true;
+  }
+
+  @Override
+  public boolean onPreUpdate(PreUpdateEvent event) {
+    EventSource session = getFlushingSession(event.getSession());
+    if (session == null) {
+      return false;
+    }
+    bufferedWrite(
+        session,
+        mutationFactory.createUpdate(
+            event.getPersister(), event.getId(), event.getState(), session));
+    // Hibernate also skips the post-update handling of the entity entry when an update is vetoed.
+    // The entry must get the new state, as the entity would otherwise be dirty in the next flush.
+    EntityEntry entry = session.getPersistenceContextInternal().getEntry(event.getEntity());
+    if (entry != null) {
+      EntityPersister persister = event.getPersister();
+      Object[] state = event.getState();
+      entry.postUpdate(
+          event.getEntity(),
+          state,
+          persister.isVersioned() ? state[persister.getVersionPropertyIndex()] : null);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean onPreDelete(PreDeleteEvent event) {
+    EventSource session = getFlushingSession(event.getSession());
+    if (session == null) {
+      return false;
+    }
+    bufferedWrite(
+        session, mutationFactory.createDelete(event.getPersister(), event.getId(), session));
+    return true;
+  }
+
+  /**
+   * Returns the session if the entity action of the given session should be written as a mutation,
+   * and otherwise null. Entity actions of stateless sessions are always executed as DML statements.
+   */
+  private EventSource getFlushingSession(SharedSessionContractImplementor session) {
+    if (!(session instanceof EventSource)) {
+      return null;
+    }
+    CommitFlush commitFlush = SpannerTransactionCoordinatorBuilder.getCommitFlush(session);
+    if (commitFlush == null) {
+      return null;
+    }
+    EventSource eventSource = (EventSource) session;
+    if (commitFlush.useMutations == null) {
+      commitFlush.useMutations =
+          isReadWriteTransaction(eventSource) && canUseMutations(eventSource);
+    }
+    return commitFlush.useMutations ? eventSource : null;
+  }
+
+  /**
+   * Returns true if all pending entity and collection actions in the persistence context of the
+   * session can be written as mutations.
+   */
+  private boolean canUseMutations(EventSource session) {
+    PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+    for (Map.Entry<Object, EntityEntry> entityEntry :
+        persistenceContext.reentrantSafeEntityEntries()) {
+      EntityEntry entry = entityEntry.getValue();
+      EntityPersister persister = entry.getPersister();
+      Status status = entry.getStatus();
+      if (status == Status.DELETED && entry.isExistsInDatabase()) {
+        if (!mutationFactory.supports(persister, Operation.DELETE)) {
+          return false;
+        }
+      } else if ((status == Status.MANAGED || status == Status.SAVING)
+          && !entry.isExistsInDatabase()) {
+        if (!mutationFactory.supports(persister, Operation.INSERT)) {
+          return false;
+        }
+      } else if (status == Status.MANAGED
+          && !mutationFactory.supports(persister, Operation.UPDATE)
+          && isDirty(entityEntry.getKey(), entry, session)) {
+        return false;
+      }
+    }
+    AtomicBoolean collectionChanges = new AtomicBoolean();
+    persistenceContext.forEachCollectionEntry(
+        (collection, entry) -> {
+          if (entry.isDorecreate() || entry.isDoupdate() || entry.isDoremove()) {
+            CollectionPersister persister = getPersister(entry);
+            if (persister != null && !persister.isInverse()) {
+              collectionChanges.set(true);
+            }
+          }
+        },
+        false);
+    return !collectionChanges.get();
+  }
+
+  private static CollectionPersister getPersister(CollectionEntry entry) {
+    return entry.getCurrentPersister() == null
+        ? entry.getLoadedPersister()
+        : entry.getCurrentPersister();
+  }
+
+  private static boolean isDirty(Object entity, EntityEntry entry, EventSource session) {
+    Object[] loadedState = entry.getLoadedState();
+    if (loadedState == null) {
+      return false;
+    }
+    EntityPersister persister = entry.getPersister();
+    return persister.findDirty(persister.getValues(entity), loadedState, entity, session) != null;
+  }
+
+  private static boolean isReadWriteTransaction(EventSource session) {
+    return session.doReturningWork(
+        connection ->
+            connection.isWrapperFor(CloudSpannerJdbcConnection.class)
+                && !connection.getAutoCommit()
+                && !connection.isReadOnly());
+  }
+
+  private static void bufferedWrite(EventSource session, Mutation mutation) {
+    session.doWork(
+        connection -> connection.unwrap(CloudSpannerJdbcConnection.class).bufferedWrite(mutation));
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import com.google.cloud.spanner.jdbc.JdbcDriver;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.HibernateException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Startable;
+import org.hibernate.service.spi.Stoppable;
+
+/**
+ * A Hibernate {@link ConnectionProvider} that opens a new Spanner JDBC connection for each request,
+ * instead of pooling connections. Spanner JDBC connections are lightweight. All connections to the
+ * same database share one Spanner client, which has its own pool of gRPC channels and sessions.
+ * Layering a generic connection pool on top of that pool only adds memory usage.
+ *
+ * <p>The provider opens one connection when it is started and keeps it open until the session
+ * factory is closed. This creates the shared Spanner client and its channels and sessions when the
+ * session factory is started, so the first requests of an application do not have to wait for them,
+ * and keeps the client alive while no other connections are open.
+ *
+ * <p>Set {@link SpannerSettings#USE_SPANNER_CONNECTION_PROVIDER} to true to use this provider. It
+ * is then used by {@link SpannerServiceContributor} if the JDBC URL is a Spanner URL and no other
+ * connection provider, connection pool size, data source or third-party connection pool has been
+ * configured. The provider can also be configured directly with {@link
+ * AvailableSettings#CONNECTION_PROVIDER}. The provider exposes the number of open and acquired
+ * connections. The Spanner client exports session pool metrics through its built-in OpenTelemetry
+ * metrics.
+ */
+public class SpannerConnectionProvider
+    implements ConnectionProvider, Configurable, Startable, Stoppable {
+
+  private static final String SPANNER_URL_PREFIX = "jdbc:cloudspanner:";
+
+  private static final String CONNECTION_SETTING_PREFIX = "hibernate.connection.";
+
+  /** Connection settings of Hibernate that are not passed on to the JDBC driver. */
+  private static final ImmutableSet<String> HIBERNATE_CONNECTION_SETTINGS =
+      ImmutableSet.of(
+          AvailableSettings.AUTOCOMMIT,
+          AvailableSettings.CONNECTION_PROVIDER,
+          AvailableSettings.DATASOURCE,
+          AvailableSettings.DRIVER,
+          AvailableSettings.ISOLATION,
+          AvailableSettings.POOL_SIZE,
+          AvailableSettings.URL,
+          AvailableSettings.USER);
+
+  /** The JDBC connection properties for the user and password settings of Hibernate and JPA. */
+  private static final ImmutableMap<String, String> CREDENTIAL_SETTINGS =
+      ImmutableMap.of(
+          AvailableSettings.USER, "user",
+          AvailableSettings.JAKARTA_JDBC_USER, "user",
+          AvailableSettings.JAKARTA_JDBC_PASSWORD, "password");
+
+  /** Third-party connection pools that Hibernate uses when settings with these prefixes exist. */
+  private static final String[] CONNECTION_POOL_SETTING_PREFIXES = {
+    "hibernate.hikari.", "hibernate.c3p0.", "hibernate.agroal.", "hibernate.oracleucp."
+  };
+
+  private final JdbcDriver driver = new JdbcDriver();
+
+  private final AtomicInteger openConnections = new AtomicInteger();
+
+  private final AtomicLong acquiredConnections = new AtomicLong();
+
+  private String url;
+
+  private Properties connectionProperties;
+
+  private boolean autoCommit;
+
+  private Integer isolation;
+
+  private Connection warmUpConnection;
+
+  /**
+   * Returns true if the given settings enable the Spanner connection provider, and use a Spanner
+   * JDBC URL without any other connection provider, pool size, data source or connection pool.
+   */
+  static boolean isApplicable(Map<String, Object> settings) {
+    Object enabled = settings.get(SpannerSettings.USE_SPANNER_CONNECTION_PROVIDER);
+    if (enabled == null || !Boolean.parseBoolean(enabled.toString())) {
+      return false;
+    }
+    String url = getUrl(settings);
+    if (url == null || !url.startsWith(SPANNER_URL_PREFIX)) {
+      return false;
+    }
+    for (String key : settings.keySet()) {
+      // Settings in hibernate.cfg.xml files may be specified without the 'hibernate.' prefix.
+      String name = key.startsWith("hibernate.") ? key : "hibernate." + key;
+      if (name.equals(AvailableSettings.CONNECTION_PROVIDER)
+          || name.equals(AvailableSettings.POOL_SIZE)
+          || name.equals(AvailableSettings.DATASOURCE)
+          || key.equals(AvailableSettings.JAKARTA_JTA_DATASOURCE)
+          || key.equals(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE)) {
+        return false;
+      }
+      for (String prefix : CONNECTION_POOL_SETTING_PREFIXES) {
+        if (name.startsWith(prefix)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static String getUrl(Map<String, Object> settings) {
+    Object url = settings.get(AvailableSettings.JAKARTA_JDBC_URL);
+    if (url == null) {
+      url = settings.get(AvailableSettings.URL);
+    }
+    return url == null ? null : url.toString();
+  }
+
+  /**
+   * Returns the properties for the JDBC driver. These are all 'hibernate.connection.*' settings
+   * without the prefix, except for the settings that are used by Hibernate, and the user and
+   * password.
+   */
+  static Properties getConnectionProperties(Map<String, Object> settings) {
+    Properties properties = new Properties();
+    for (Map.Entry<String, Object> setting : settings.entrySet()) {
+      String key = setting.getKey();
+      if (!(setting.getValue() instanceof String)) {
+        continue;
+      }
+      String value = (String) setting.getValue();
+      if (CREDENTIAL_SETTINGS.containsKey(key)) {
+        properties.setProperty(CREDENTIAL_SETTINGS.get(key), value);
+      } else if (key.startsWith(CONNECTION_SETTING_PREFIX)
+          && !HIBERNATE_CONNECTION_SETTINGS.contains(key)) {
+        properties.setProperty(key.substring(CONNECTION_SETTING_PREFIX.length()), value);
+      }
+    }
+    return properties;
+  }
+
+  /**
+   * Returns the JDBC isolation level in the given settings. The value can be the number of the
+   * level, or the name of the level with or without the 'TRANSACTION_' prefix.
+   */
+  static Integer getIsolation(Map<String, Object> settings) {
+    Object isolation = settings.get(AvailableSettings.ISOLATION);
+    if (isolation == null || isolation.toString().trim().isEmpty()) {
+      return null;
+    }
+    if (isolation instanceof Number) {
+      return ((Number) isolation).intValue();
+    }
+    String name = isolation.toString().trim().toUpperCase(Locale.ROOT);
+    switch (name.startsWith("TRANSACTION_") ? name.substring("TRANSACTION_".length()) : name) {
+      case "NONE":
+        return Connection.TRANSACTION_NONE;
+      case "READ_UNCOMMITTED":
+        return Connection.TRANSACTION_READ_UNCOMMITTED;
+      case "READ_COMMITTED":
+        return Connection.TRANSACTION_READ_COMMITTED;
+      case "REPEATABLE_READ":
+        return Connection.TRANSACTION_REPEATABLE_READ;
+      case "SERIALIZABLE":
+        return Connection.TRANSACTION_SERIALIZABLE;
+      default:
+        try {
+          return Integer.valueOf(name);
+        } catch (NumberFormatException numberFormatException) {
+          throw new HibernateException("Unknown transaction isolation level: " + isolation);
+        }
+    }
+  }
+
+  @Override
+  public void configure(Map<String, Object> settings) {
+    this.url = getUrl(settings);
+    if (Strings.isNullOrEmpty(this.url)) {
+      throw new HibernateException("No JDBC URL has been configured for Spanner");
+    }
+    this.connectionProperties = getConnectionProperties(settings);
+    // Use the same defaults as the built-in Hibernate connection provider.
+    Object autoCommit = settings.get(AvailableSettings.AUTOCOMMIT);
+    this.autoCommit = autoCommit != null && Boolean.parseBoolean(autoCommit.toString());
+    this.isolation = getIsolation(settings);
+  }
+
+  @Override
+  public void start() {
+    try {
+      this.warmUpConnection = driver.connect(url, connectionProperties);
+    } catch (SQLException sqlException) {
+      throw new HibernateException("Failed to open a Spanner connection", sqlException);
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (warmUpConnection != null) {
+      try {
+        warmUpConnection.close();
+      } catch (SQLException sqlException) {
+        throw new HibernateException("Failed to close the Spanner connection", sqlException);
+      } finally {
+        warmUpConnection = null;
+      }
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    Connection connection = driver.connect(url, connectionProperties);
+    try {
+      if (connection.getAutoCommit() != autoCommit) {
+        connection.setAutoCommit(autoCommit);
+      }
+      if (isolation != null) {
+        connection.setTransactionIsolation(isolation);
+      }
+    } catch (SQLException sqlException) {
+      connection.close();
+      throw sqlException;
+    }
+    openConnections.incrementAndGet();
+    acquiredConnections.incrementAndGet();
+    return connection;
+  }
+
+  @Override
+  public void closeConnection(Connection connection) throws SQLException {
+    try {
+      connection.close();
+    } finally {
+      openConnections.decrementAndGet();
+    }
+  }
+
+  /** Connections are cheap to open, so Hibernate may release them after each statement. */
+  @Override
+  public boolean supportsAggressiveRelease() {
+    return true;
+  }
+
+  /** Returns the number of connections that have been handed out to Hibernate and not closed. */
+  public int getOpenConnectionCount() {
+    return openConnections.get();
+  }
+
+  /** Returns the total number of connections that have been handed out to Hibernate. */
+  public long getAcquiredConnectionCount() {
+    return acquiredConnections.get();
+  }
+
+  @Override
+  public boolean isUnwrappableAs(Class<?> unwrapType) {
+    return unwrapType.isAssignableFrom(getClass());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T unwrap(Class<T> unwrapType) {
+    if (isUnwrappableAs(unwrapType)) {
+      return (T) this;
+    }
+    throw new UnknownUnwrapTypeException(unwrapType);
+  }
+}
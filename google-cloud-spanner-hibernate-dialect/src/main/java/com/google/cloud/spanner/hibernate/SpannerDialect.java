@@ -24,6 +24,8 @@ import static org.hibernate.type.SqlTypes.DECIMAL;
 import static org.hibernate.type.SqlTypes.JSON;
 import static org.hibernate.type.SqlTypes.NUMERIC;
 
+import com.google.cloud.spanner.hibernate.hints.Hints;
+import com.google.cloud.spanner.hibernate.hints.Hints.LockScannedRanges;
 import com.google.cloud.spanner.hibernate.hints.ReplaceQueryPartsHint;
 import com.google.cloud.spanner.hibernate.schema.SpannerForeignKeyExporter;
 import com.google.cloud.spanner.jdbc.JsonType;
@@ -34,10 +36,14 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import org.hibernate.HibernateException;
 import org.hibernate.LockMode;
 import org.hibernate.LockOptions;
 import org.hibernate.Locking;
+import org.hibernate.StaleObjectStateException;
 import org.hibernate.Timeouts;
 import org.hibernate.boot.model.TypeContributions;
 import org.hibernate.boot.model.relational.Sequence;
@@ -55,12 +61,14 @@ import org.hibernate.engine.jdbc.dialect.spi.DialectResolutionInfo;
 import org.hibernate.engine.jdbc.env.spi.IdentifierHelper;
 import org.hibernate.engine.jdbc.env.spi.IdentifierHelperBuilder;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.mapping.ForeignKey;
 import org.hibernate.mapping.Table;
 import org.hibernate.mapping.UniqueKey;
 import org.hibernate.metamodel.mapping.EntityMappingType;
 import org.hibernate.metamodel.spi.RuntimeModelCreationContext;
 import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.mutation.EntityMutationTarget;
 import org.hibernate.query.spi.DomainQueryExecutionContext;
 import org.hibernate.query.spi.QueryOptions;
 import org.hibernate.query.sqm.internal.DomainParameterXref;
@@ -76,6 +84,8 @@ import org.hibernate.sql.ast.spi.StandardSqlAstTranslatorFactory;
 import org.hibernate.sql.ast.tree.Statement;
 import org.hibernate.sql.ast.tree.select.QuerySpec;
 import org.hibernate.sql.exec.spi.JdbcOperation;
+import org.hibernate.sql.model.MutationOperation;
+import org.hibernate.sql.model.internal.OptionalTableUpdate;
 import org.hibernate.tool.schema.extract.internal.SequenceInformationExtractorLegacyImpl;
 import org.hibernate.tool.schema.extract.internal.SequenceInformationExtractorNoOpImpl;
 import org.hibernate.tool.schema.extract.spi.ExtractionContext;
@@ -99,6 +109,13 @@ import org.jboss.logging.Logger;
 public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
   private static final Logger LOG = Logger.getLogger(SpannerDialect.class.getName());
 
+  /**
+   * Spanner does not support FOR SHARE. Statements that use {@link LockMode#PESSIMISTIC_READ}
+   * instead use this hint to take shared locks on the rows that they read.
+   */
+  private static final ReplaceQueryPartsHint SHARED_LOCK_HINT =
+      Hints.lockScannedRanges(LockScannedRanges.SHARED);
+
   private static class NoOpSqmMultiTableInsertStrategy implements SqmMultiTableInsertStrategy {
     private static final NoOpSqmMultiTableInsertStrategy INSTANCE =
         new NoOpSqmMultiTableInsertStrategy();
@@ -112,6 +129,45 @@ public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
     }
   }
 
+  /**
+   * Locks the row of an entity in shared mode by reading it with a LOCK_SCANNED_RANGES=shared
+   * statement hint. The hint is also needed for the REPEATABLE_READ isolation level, in which reads
+   * do not take any locks by default.
+   */
+  private static class SharedLockingStrategy implements LockingStrategy {
+    private final EntityPersister lockable;
+
+    private SharedLockingStrategy(EntityPersister lockable) {
+      this.lockable = lockable;
+    }
+
+    @Override
+    public void lock(
+        Object id,
+        Object version,
+        Object object,
+        int timeout,
+        SharedSessionContractImplementor session) {
+      validateSpannerLockTimeout(timeout);
+      String selection = lockable.isVersioned() ? "version(e)" : "id(e)";
+      List<Object> rows =
+          session
+              .createSelectionQuery(
+                  "select "
+                      + selection
+                      + " from "
+                      + lockable.getJpaEntityName()
+                      + " e where id(e) = :id",
+                  Object.class)
+              .setParameter("id", id)
+              .setHibernateLockMode(LockMode.PESSIMISTIC_READ)
+              .getResultList();
+      if (rows.isEmpty() || lockable.isVersioned() && !Objects.equals(version, rows.get(0))) {
+        throw new StaleObjectStateException(lockable.getEntityName(), id);
+      }
+    }
+  }
+
   private static class SpannerJsonJdbcType extends JsonAsStringJdbcType {
     private SpannerJsonJdbcType() {
       super(JSON, null);
@@ -385,6 +441,40 @@ public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
     return true;
   }
 
+  /**
+   * Binds the identifiers of batch and multi-id loads, like {@link
+   * org.hibernate.Session#findMultiple(Class, java.util.List, jakarta.persistence.FindOption...)}
+   * and batch fetching of entities and collections, as a single ARRAY parameter that is rendered as
+   * <code>in unnest(@p1)</code>. The SQL string is therefore the same for all numbers of
+   * identifiers, which allows Spanner to reuse the cached query plan. The list parameters of HQL
+   * and criteria queries are still expanded to one parameter per element by Hibernate.
+   */
+  @Override
+  public boolean useArrayForMultiValuedParameters() {
+    return true;
+  }
+
+  /**
+   * Spanner returns the values of generated columns with a <code>THEN RETURN</code> clause. This
+   * allows Hibernate to read generated identifiers, {@link org.hibernate.annotations.Generated}
+   * columns, column defaults and database timestamps in the same statement as the insert or update,
+   * instead of executing a separate select after each write.
+   */
+  @Override
+  public boolean supportsInsertReturning() {
+    return true;
+  }
+
+  @Override
+  public boolean supportsInsertReturningGeneratedKeys() {
+    return true;
+  }
+
+  @Override
+  public boolean supportsUpdateReturning() {
+    return true;
+  }
+
   @Override
   public UniqueDelegate getUniqueDelegate() {
     return spannerUniqueDelegate;
@@ -396,6 +486,25 @@ public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
     return NoOpSqmMultiTableInsertStrategy.INSTANCE;
   }
 
+  /**
+   * Executes upserts, like {@link org.hibernate.StatelessSession#upsert(Object)}, as a single
+   * <code>insert or update</code> statement instead of an update that is followed by an insert if
+   * the row did not exist. Optional tables, for which Hibernate deletes the row if all values are
+   * null, and versioned entities still use the standard update-or-insert operation.
+   */
+  @Override
+  public MutationOperation createOptionalTableUpdateOperation(
+      EntityMutationTarget mutationTarget,
+      OptionalTableUpdate optionalTableUpdate,
+      SessionFactoryImplementor factory) {
+    if (optionalTableUpdate.getMutatingTable().getTableMapping().isOptional()
+        || !optionalTableUpdate.getOptimisticLockBindings().isEmpty()) {
+      return super.createOptionalTableUpdateOperation(mutationTarget, optionalTableUpdate, factory);
+    }
+    return new SpannerSqlAstTranslator<>(factory, optionalTableUpdate)
+        .createMergeOperation(optionalTableUpdate);
+  }
+
   @Override
   public String addSqlHintOrComment(
       String sql, QueryOptions queryOptions, boolean commentsEnabled) {
@@ -409,9 +518,35 @@ public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
         sql = applyQueryHints(sql, queryOptions);
       }
     }
+    if (isPessimisticRead(queryOptions)) {
+      sql = addSharedLockHint(sql);
+    }
     return super.addSqlHintOrComment(sql, queryOptions, commentsEnabled);
   }
 
+  /**
+   * Adds LOCK_SCANNED_RANGES=SHARED to the statement hint of the given SQL string. The hint is
+   * merged into an existing statement hint, as a statement can only have one statement hint.
+   */
+  static String addSharedLockHint(String sql) {
+    if (!startsWithStatementHint(sql)) {
+      return SHARED_LOCK_HINT.replace(sql);
+    }
+    int end = sql.indexOf('}');
+    if (end < 0 || sql.substring(0, end).toUpperCase(Locale.ROOT).contains("LOCK_SCANNED_RANGES")) {
+      return sql;
+    }
+    return sql.substring(0, end)
+        + ",LOCK_SCANNED_RANGES="
+        + LockScannedRanges.SHARED
+        + sql.substring(end);
+  }
+
+  private static boolean isPessimisticRead(QueryOptions queryOptions) {
+    return queryOptions.getLockOptions() != null
+        && queryOptions.getLockOptions().getLockMode() == LockMode.PESSIMISTIC_READ;
+  }
+
   private static String applyHint(String sql, String hint) {
     try {
       return ReplaceQueryPartsHint.fromComment(hint).replace(sql);
@@ -433,6 +568,28 @@ public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
     return sql;
   }
 
+  /**
+   * Returns true if the query has a replacement hint that adds a table hint to the given table, for
+   * example a hint that is created with {@link Hints#forceIndexJoin(String, String,
+   * ReplaceQueryPartsHint.ReplaceMode)}.
+   */
+  static boolean hasTableHint(QueryOptions queryOptions, String table) {
+    String tableReferences = " from " + table + " join " + table + " ";
+    if (hasCommentHint(queryOptions)
+        && !applyHint(tableReferences, queryOptions.getComment()).equals(tableReferences)) {
+      return true;
+    }
+    if (queryOptions.getDatabaseHints() != null) {
+      for (String hint : queryOptions.getDatabaseHints()) {
+        if (stringCouldContainReplacementHint(hint)
+            && !applyHint(tableReferences, hint).equals(tableReferences)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   private static boolean hasCommentHint(QueryOptions queryOptions) {
     return stringCouldContainReplacementHint(queryOptions.getComment());
   }
@@ -452,6 +609,10 @@ public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
     return !Strings.isNullOrEmpty(hint) && hint.startsWith("@{") && hint.endsWith("}");
   }
 
+  private static boolean startsWithStatementHint(String sql) {
+    return sql.startsWith("@{");
+  }
+
   @Override
   public IdentifierHelper buildIdentifierHelper(
       IdentifierHelperBuilder builder, DatabaseMetaData metadata) throws SQLException {
@@ -503,7 +664,7 @@ public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
           buildPessimisticForceIncrementStrategy(lockable, lockMode, lockScope);
       case UPGRADE_NOWAIT, UPGRADE_SKIPLOCKED, PESSIMISTIC_WRITE ->
           buildPessimisticWriteStrategy(lockable, lockMode, lockScope);
-      case PESSIMISTIC_READ -> buildPessimisticReadStrategy(lockable, lockMode, lockScope);
+      case PESSIMISTIC_READ -> new SharedLockingStrategy(lockable);
       case OPTIMISTIC_FORCE_INCREMENT -> buildOptimisticForceIncrementStrategy(lockable, lockMode);
       case OPTIMISTIC -> buildOptimisticStrategy(lockable, lockMode);
       case READ -> buildReadStrategy(lockable, lockMode, lockScope);
@@ -533,6 +694,14 @@ public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
     if (lockKind == PessimisticLockKind.NONE) {
       return NON_CLAUSE_STRATEGY;
     }
+    // Shared locks are requested with a statement hint instead of a locking clause.
+    // See addSqlHintOrComment(String, QueryOptions, boolean).
+    if (lockKind == PessimisticLockKind.SHARE) {
+      if (lockOptions.getTimeout() != null) {
+        validateSpannerLockTimeout(lockOptions.getTimeout().milliseconds());
+      }
+      return NON_CLAUSE_STRATEGY;
+    }
 
     if (lockOptions.getTimeout() != null) {
       validateSpannerLockTimeout(lockOptions.getTimeout().milliseconds());
@@ -588,10 +757,16 @@ public class SpannerDialect extends org.hibernate.dialect.SpannerDialect {
     return getWriteLockString(aliases, timeout.milliseconds());
   }
 
+  /**
+   * Returns an empty string, as Spanner has no locking clause for shared locks. Queries that use
+   * {@link LockMode#PESSIMISTIC_READ} get a LOCK_SCANNED_RANGES=shared statement hint instead, and
+   * entities that are locked with {@link LockMode#PESSIMISTIC_READ} are read with that hint by
+   * {@link SharedLockingStrategy}.
+   */
   @Override
   public String getReadLockString(int timeout) {
     validateSpannerLockTimeout(timeout);
-    return getForUpdateString();
+    return "";
   }
 
   @Override
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Collection;
+import org.hibernate.mapping.OneToMany;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.mapping.Property;
+import org.hibernate.mapping.SimpleValue;
+
+/**
+ * An implementation of a Hibernate {@link Integrator} that registers the event listeners for the
+ * Spanner-specific {@link SpannerSettings} and for entities that are annotated with {@link
+ * StaleRead}. The settings are read once from the configuration of the session factory, and the
+ * listeners are only registered for the features that have been enabled. The integrator also lets
+ * Spanner cascade the deletes of {@link Interleaved} children if {@link
+ * SpannerSettings#INTERLEAVED_CASCADE_DELETE} is enabled.
+ */
+public class SpannerIntegrator implements Integrator {
+
+  @Override
+  public void integrate(
+      Metadata metadata,
+      BootstrapContext bootstrapContext,
+      SessionFactoryImplementor sessionFactory) {
+    EventListenerRegistry registry =
+        sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+    Map<String, Object> settings = sessionFactory.getProperties();
+    boolean autoBatchDml = SpannerSettings.getBoolean(settings, SpannerSettings.AUTO_BATCH_DML);
+    boolean lastStatementAtCommit =
+        SpannerSettings.getBoolean(settings, SpannerSettings.LAST_STATEMENT_AT_COMMIT);
+
+    // Automatic DML batching during flushes. The AutoBatchDml annotation can also enable it for a
+    // single transaction.
+    if (autoBatchDml
+        || lastStatementAtCommit
+        || sessionFactory.getSessionFactoryOptions().getInterceptor()
+            instanceof AbstractTransactionTagInterceptor) {
+      AutoBatchDmlFlushListener autoBatchDmlListener =
+          new AutoBatchDmlFlushListener(autoBatchDml, lastStatementAtCommit);
+      AutoBatchDmlFlushListener.BeforeFlush beforeBatchFlush =
+          new AutoBatchDmlFlushListener.BeforeFlush(autoBatchDmlListener);
+      AutoBatchDmlFlushListener.AfterFlush afterBatchFlush =
+          new AutoBatchDmlFlushListener.AfterFlush(autoBatchDmlListener);
+      registry.prependListeners(EventType.FLUSH, beforeBatchFlush);
+      registry.prependListeners(EventType.AUTO_FLUSH, beforeBatchFlush);
+      registry.appendListeners(EventType.FLUSH, afterBatchFlush);
+      registry.appendListeners(EventType.AUTO_FLUSH, afterBatchFlush);
+    }
+
+    // Mutations instead of DML for the flush at commit.
+    if (SpannerSettings.getBoolean(settings, SpannerSettings.USE_MUTATIONS)) {
+      MutationFlushListener mutationFlushListener = new MutationFlushListener();
+      registry.appendListeners(EventType.PRE_INSERT, mutationFlushListener);
+      registry.appendListeners(EventType.PRE_UPDATE, mutationFlushListener);
+      registry.appendListeners(EventType.PRE_DELETE, mutationFlushListener);
+    }
+
+    // Interleaved children that are deleted by Spanner when the parent is deleted.
+    if (SpannerSettings.getBoolean(settings, SpannerSettings.INTERLEAVED_CASCADE_DELETE)) {
+      enableInterleavedCascadeDelete(metadata);
+    }
+
+    // Stale reads for entities that are annotated with @StaleRead.
+    ImmutableMap<String, SpannerSessionSettings> staleReadEntities =
+        StaleReadLoadListener.getStaleReadEntities(metadata);
+    if (!staleReadEntities.isEmpty()) {
+      registry.prependListeners(
+          EventType.LOAD, new StaleReadLoadListener.BeforeLoad(staleReadEntities));
+    }
+  }
+
+  /**
+   * Marks the one-to-many collections of {@link Interleaved} children with <code>
+   * cascadeDelete = true</code> as deleted by the database, in the same way as {@link
+   * org.hibernate.annotations.OnDelete} with {@link OnDeleteAction#CASCADE}. Spanner deletes the
+   * child rows together with the parent row, so Hibernate does not need to delete each child when
+   * the parent is removed. This only changes how Hibernate removes the children, and not the
+   * generated schema, as the foreign keys have already been created at this point.
+   */
+  private static void enableInterleavedCascadeDelete(Metadata metadata) {
+    for (PersistentClass owner : metadata.getEntityBindings()) {
+      Class<?> ownerClass = owner.getMappedClass();
+      if (ownerClass == null) {
+        continue;
+      }
+      for (Property property : owner.getPropertyClosure()) {
+        if (!(property.getValue() instanceof Collection)) {
+          continue;
+        }
+        Collection collection = (Collection) property.getValue();
+        if (!(collection.getElement() instanceof OneToMany)
+            || !(collection.getKey() instanceof SimpleValue)) {
+          continue;
+        }
+        PersistentClass child = ((OneToMany) collection.getElement()).getAssociatedClass();
+        Class<?> childClass = child == null ? null : child.getMappedClass();
+        Interleaved interleaved =
+            childClass == null ? null : childClass.getAnnotation(Interleaved.class);
+        if (interleaved != null
+            && interleaved.cascadeDelete()
+            && interleaved.parentEntity().isAssignableFrom(ownerClass)) {
+          ((SimpleValue) collection.getKey()).setOnDeleteAction(OnDeleteAction.CASCADE);
+        }
+      }
+    }
+  }
+}
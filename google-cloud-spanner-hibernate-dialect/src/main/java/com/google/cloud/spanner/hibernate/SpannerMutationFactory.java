@@ -0,0 +1,278 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Mutation.WriteBuilder;
+import com.google.cloud.spanner.Value;
+import com.google.common.collect.ImmutableSet;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.mapping.AttributeMapping;
+import org.hibernate.metamodel.mapping.PluralAttributeMapping;
+import org.hibernate.metamodel.mapping.SelectableConsumer;
+import org.hibernate.metamodel.mapping.SelectableMapping;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.SingleTableEntityPersister;
+
+/**
+ * Creates Spanner {@link Mutation}s for entity inserts, updates and deletes, and determines which
+ * of these operations can be written as a mutation for a given entity type.
+ */
+final class SpannerMutationFactory {
+
+  /** The entity operations that can be written as a mutation. */
+  enum Operation {
+    INSERT,
+    UPDATE,
+    DELETE
+  }
+
+  /** The JDBC value types that can be converted to a Spanner {@link Value} without loss. */
+  private static final ImmutableSet<Class<?>> SUPPORTED_TYPES =
+      ImmutableSet.of(
+          String.class,
+          Long.class,
+          Integer.class,
+          Short.class,
+          Byte.class,
+          Boolean.class,
+          Double.class,
+          Float.class,
+          BigDecimal.class,
+          byte[].class,
+          java.sql.Date.class,
+          LocalDate.class,
+          java.sql.Timestamp.class,
+          Instant.class,
+          OffsetDateTime.class,
+          ZonedDateTime.class);
+
+  private final ConcurrentMap<String, Set<Operation>> supportedOperations =
+      new ConcurrentHashMap<>();
+
+  /** Returns true if the given operation on the given entity type can be written as a mutation. */
+  boolean supports(EntityPersister persister, Operation operation) {
+    return supportedOperations
+        .computeIfAbsent(persister.getEntityName(), ignore -> computeOperations(persister))
+        .contains(operation);
+  }
+
+  private static Set<Operation> computeOperations(EntityPersister persister) {
+    if (!(persister instanceof SingleTableEntityPersister)
+        || ((SingleTableEntityPersister) persister).getTableSpan() != 1
+        || persister.getSuperMappingType() != null
+        || persister.hasSubclasses()
+        || !hasOnlySupportedColumns(persister)) {
+      return EnumSet.noneOf(Operation.class);
+    }
+    EnumSet<Operation> operations = EnumSet.allOf(Operation.class);
+    if ((persister.getGenerator() != null && persister.getGenerator().generatedOnExecution())
+        || persister.hasInsertGeneratedProperties()) {
+      operations.remove(Operation.INSERT);
+    }
+    if (persister.isVersioned()
+        || persister.hasUpdateGeneratedProperties()
+        || persister.getBytecodeEnhancementMetadata().isEnhancedForLazyLoading()) {
+      operations.remove(Operation.UPDATE);
+    }
+    // A delete mutation needs the key values in primary key order. That order is only known for
+    // single-column primary keys.
+    if (persister.isVersioned()
+        || persister.getSoftDeleteMapping() != null
+        || persister.getIdentifierMapping().getJdbcTypeCount() != 1) {
+      operations.remove(Operation.DELETE);
+    }
+    return operations;
+  }
+
+  private static boolean hasOnlySupportedColumns(EntityPersister persister) {
+    boolean[] supported = {true};
+    SelectableConsumer consumer =
+        (index, selectable) -> {
+          if (selectable.isFormula()
+              || !SUPPORTED_TYPES.contains(
+                  selectable.getJdbcMapping().getJdbcJavaType().getJavaTypeClass())) {
+            supported[0] = false;
+          }
+        };
+    persister.getIdentifierMapping().forEachSelectable(consumer);
+    for (int i = 0; i < persister.getNumberOfAttributeMappings(); i++) {
+      AttributeMapping attribute = persister.getAttributeMapping(i);
+      if (!(attribute instanceof PluralAttributeMapping)) {
+        attribute.forEachSelectable(consumer);
+      }
+    }
+    return supported[0];
+  }
+
+  Mutation createInsert(
+      EntityPersister persister,
+      Object id,
+      Object[] state,
+      SharedSessionContractImplementor session) {
+    WriteBuilder builder = Mutation.newInsertBuilder(getTableName(persister));
+    addIdentifier(builder, persister, id, session);
+    for (int i = 0; i < persister.getNumberOfAttributeMappings(); i++) {
+      AttributeMapping attribute = persister.getAttributeMapping(i);
+      if (!(attribute instanceof PluralAttributeMapping)
+          && attribute.getAttributeMetadata().isInsertable()) {
+        attribute.breakDownJdbcValues(
+            state[attribute.getStateArrayPosition()],
+            (valueIndex, value, selectable) -> {
+              if (selectable.isInsertable()) {
+                builder.set(getColumnName(selectable)).to(toValue(value, selectable));
+              }
+            },
+            session);
+      }
+    }
+    return builder.build();
+  }
+
+  Mutation createUpdate(
+      EntityPersister persister,
+      Object id,
+      Object[] state,
+      SharedSessionContractImplementor session) {
+    WriteBuilder builder = Mutation.newUpdateBuilder(getTableName(persister));
+    addIdentifier(builder, persister, id, session);
+    for (int i = 0; i < persister.getNumberOfAttributeMappings(); i++) {
+      AttributeMapping attribute = persister.getAttributeMapping(i);
+      if (!(attribute instanceof PluralAttributeMapping)
+          && attribute.getAttributeMetadata().isUpdatable()) {
+        attribute.breakDownJdbcValues(
+            state[attribute.getStateArrayPosition()],
+            (valueIndex, value, selectable) -> {
+              if (selectable.isUpdateable()) {
+                builder.set(getColumnName(selectable)).to(toValue(value, selectable));
+              }
+            },
+            session);
+      }
+    }
+    return builder.build();
+  }
+
+  Mutation createDelete(
+      EntityPersister persister, Object id, SharedSessionContractImplementor session) {
+    Object[] key = new Object[1];
+    persister
+        .getIdentifierMapping()
+        .breakDownJdbcValues(
+            id, (valueIndex, value, selectable) -> key[0] = toKeyPart(value), session);
+    return Mutation.delete(getTableName(persister), Key.of(key));
+  }
+
+  private static void addIdentifier(
+      WriteBuilder builder,
+      EntityPersister persister,
+      Object id,
+      SharedSessionContractImplementor session) {
+    persister
+        .getIdentifierMapping()
+        .breakDownJdbcValues(
+            id,
+            (valueIndex, value, selectable) ->
+                builder.set(getColumnName(selectable)).to(toValue(value, selectable)),
+            session);
+  }
+
+  private static String getTableName(EntityPersister persister) {
+    return unquote(((SingleTableEntityPersister) persister).getTableName());
+  }
+
+  private static String getColumnName(SelectableMapping selectable) {
+    return unquote(selectable.getSelectionExpression());
+  }
+
+  private static String unquote(String identifier) {
+    return identifier.replace("`", "").replace("\"", "");
+  }
+
+  /** Converts a JDBC value to a Spanner {@link Value} based on the JDBC type of the column. */
+  static Value toValue(Object value, SelectableMapping selectable) {
+    Class<?> type = selectable.getJdbcMapping().getJdbcJavaType().getJavaTypeClass();
+    if (type == String.class) {
+      return Value.string((String) value);
+    } else if (type == Long.class
+        || type == Integer.class
+        || type == Short.class
+        || type == Byte.class) {
+      return Value.int64(value == null ? null : ((Number) value).longValue());
+    } else if (type == Boolean.class) {
+      return Value.bool((Boolean) value);
+    } else if (type == Double.class) {
+      return Value.float64((Double) value);
+    } else if (type == Float.class) {
+      return Value.float32((Float) value);
+    } else if (type == BigDecimal.class) {
+      return Value.numeric((BigDecimal) value);
+    } else if (type == byte[].class) {
+      return Value.bytes((ByteArray) toKeyPart(value));
+    } else if (type == java.sql.Date.class || type == LocalDate.class) {
+      return Value.date((Date) toKeyPart(value));
+    } else if (SUPPORTED_TYPES.contains(type)) {
+      return Value.timestamp((Timestamp) toKeyPart(value));
+    }
+    throw new IllegalArgumentException("Unsupported type for mutations: " + type.getName());
+  }
+
+  /** Converts a JDBC value to the Java type that the Spanner client uses for the value. */
+  private static Object toKeyPart(Object value) {
+    if (value instanceof byte[]) {
+      return ByteArray.copyFrom((byte[]) value);
+    } else if (value instanceof java.sql.Date) {
+      return toDate(((java.sql.Date) value).toLocalDate());
+    } else if (value instanceof LocalDate) {
+      return toDate((LocalDate) value);
+    } else if (value instanceof java.sql.Timestamp) {
+      return Timestamp.of((java.sql.Timestamp) value);
+    } else if (value instanceof Instant) {
+      return toTimestamp((Instant) value);
+    } else if (value instanceof OffsetDateTime) {
+      return toTimestamp(((OffsetDateTime) value).toInstant());
+    } else if (value instanceof ZonedDateTime) {
+      return toTimestamp(((ZonedDateTime) value).toInstant());
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return ((Number) value).longValue();
+    }
+    return value;
+  }
+
+  private static Date toDate(LocalDate date) {
+    return Date.fromYearMonthDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+  }
+
+  private static Timestamp toTimestamp(Instant instant) {
+    return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+  }
+}
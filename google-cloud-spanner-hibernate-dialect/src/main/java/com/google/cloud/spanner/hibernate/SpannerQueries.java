@@ -0,0 +1,620 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.jdbc.CloudSpannerJdbcConnection;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.hibernate.FlushMode;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StaleObjectStateException;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.TransactionCompletionCallbacks.BeforeCompletionCallback;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.SelectionQuery;
+
+/** Utility methods for executing Hibernate queries with Spanner-specific execution modes. */
+public final class SpannerQueries {
+
+  private static final SpannerSessionSettings DISABLE_AUTO_PARTITION_MODE =
+      SpannerSessionSettings.newBuilder().setAutoPartitionMode(false).build();
+
+  /** The lock modes that are supported by {@link #lock(Session, Collection, LockMode)}. */
+  private static final ImmutableSet<LockMode> BATCH_LOCK_MODES =
+      ImmutableSet.of(
+          LockMode.PESSIMISTIC_READ,
+          LockMode.PESSIMISTIC_WRITE,
+          LockMode.PESSIMISTIC_FORCE_INCREMENT,
+          LockMode.OPTIMISTIC_FORCE_INCREMENT);
+
+  private SpannerQueries() {}
+
+  /**
+   * Executes a bulk update or delete statement as Partitioned DML. The statement is executed on a
+   * separate session and JDBC connection, and is not part of any transaction of the application.
+   *
+   * <p>Partitioned DML is not limited by the mutation limit of a transaction and does not lock the
+   * entire range of rows that it modifies. Use it for bulk statements that are safe to execute
+   * non-atomically and that can be retried, like deleting rows that are older than a given date.
+   * The statement can be applied partially if it fails. Changes in the persistence context of other
+   * sessions are not flushed before the statement is executed, and those sessions do not see the
+   * changes that are made by the statement.
+   *
+   * <p>Example:
+   *
+   * <pre>{@code
+   * int deleted =
+   *     SpannerQueries.executePartitionedUpdate(
+   *         sessionFactory,
+   *         session ->
+   *             session
+   *                 .createMutationQuery("delete from Event where createdAt < :cutoff")
+   *                 .setParameter("cutoff", cutoff));
+   * }</pre>
+   *
+   * @param sessionFactory the session factory that is used to open the session for the statement
+   * @param queryFactory creates the update or delete statement for the given session
+   * @return a lower bound of the number of rows that were modified
+   */
+  public static int executePartitionedUpdate(
+      SessionFactory sessionFactory, Function<Session, MutationQuery> queryFactory) {
+    Preconditions.checkNotNull(sessionFactory);
+    Preconditions.checkNotNull(queryFactory);
+    try (Session session = sessionFactory.openSession()) {
+      // Hibernate only executes bulk statements in a transaction. The connection is switched to
+      // auto-commit mode after the transaction has started, so the commit is a no-op.
+      Transaction transaction = session.beginTransaction();
+      try {
+        SpannerSessionSettings.applyPartitionedDml(session);
+        int updateCount = queryFactory.apply(session).executeUpdate();
+        transaction.commit();
+        return updateCount;
+      } catch (RuntimeException exception) {
+        if (transaction.isActive()) {
+          SpannerSessionSettings.endAutoCommit(session);
+          transaction.rollback();
+        }
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * Executes a query as a partitioned query and returns the results as a stream. The Spanner JDBC
+   * driver splits the query into partitions, executes at most <code>maxParallelism</code>
+   * partitions in parallel, and returns the rows of all partitions in one result set. The driver
+   * buffers a limited number of rows per partition, which means that memory usage is bounded if the
+   * rows are consumed as they are returned. The order of the rows is not defined.
+   *
+   * <p>The query must be partitionable. This means that the query must be a simple query on one
+   * table, or a query on interleaved tables that is a root partitionable query. The session must be
+   * in auto-commit mode or in a read-only transaction. The persistence context of the session holds
+   * all entities that are returned by the stream, so use projections, a {@link
+   * org.hibernate.StatelessSession} or clear the session regularly for large exports.
+   *
+   * <p>All queries that are executed by the session while the stream is open are executed as
+   * partitioned queries. Close the stream when it is no longer needed.
+   *
+   * <p>Example:
+   *
+   * <pre>{@code
+   * try (Stream<Object[]> rows =
+   *     SpannerQueries.getPartitionedResultStream(
+   *         session,
+   *         session.createSelectionQuery("select id, name from Singer", Object[].class),
+   *         true,
+   *         8)) {
+   *   rows.forEach(exporter::write);
+   * }
+   * }</pre>
+   *
+   * @param session the session that created the query
+   * @param query the query that should be executed
+   * @param dataBoostEnabled whether the query should be executed with Data Boost
+   * @param maxParallelism the maximum number of partitions that are executed in parallel, or 0 to
+   *     use the number of available processors
+   * @return a stream of the results of all partitions of the query
+   */
+  public static <T> Stream<T> getPartitionedResultStream(
+      Session session, SelectionQuery<T> query, boolean dataBoostEnabled, int maxParallelism) {
+    Preconditions.checkNotNull(session);
+    Preconditions.checkNotNull(query);
+    Preconditions.checkState(
+        !session.doReturningWork(
+            connection -> !connection.getAutoCommit() && !connection.isReadOnly()),
+        "Partitioned queries cannot be executed in a read/write transaction");
+    SpannerSessionSettings.apply(
+        session,
+        SpannerSessionSettings.newBuilder()
+            .setAutoPartitionMode(true)
+            .setDataBoostEnabled(dataBoostEnabled)
+            .setMaxPartitionedParallelism(maxParallelism)
+            .build());
+    Stream<T> stream;
+    try {
+      stream = query.getResultStream();
+    } catch (RuntimeException exception) {
+      DISABLE_AUTO_PARTITION_MODE.applyWithoutReset(session);
+      throw exception;
+    }
+    return stream.onClose(
+        () -> {
+          if (session.isOpen()) {
+            DISABLE_AUTO_PARTITION_MODE.applyWithoutReset(session);
+          }
+        });
+  }
+
+  /**
+   * Executes a query asynchronously on a separate session and JDBC connection, and returns a {@link
+   * CompletionStage} that completes with the results of the query. This allows an application to
+   * execute multiple independent queries concurrently, instead of one after the other on the same
+   * session.
+   *
+   * <p>The query is executed by the given executor in a read-only session on a connection in
+   * auto-commit mode, which means that it is executed in a single-use read-only transaction. The
+   * session is closed when the query has finished, so entities that are returned by the query are
+   * detached and lazy associations that have not been fetched by the query cannot be initialized.
+   * Use fetch joins or projections to load all the data that is needed. Changes in the persistence
+   * context of other sessions are not visible to the query.
+   *
+   * <p>Example:
+   *
+   * <pre>{@code
+   * CompletionStage<List<Singer>> singers =
+   *     SpannerQueries.resultListAsync(
+   *         sessionFactory,
+   *         session -> session.createSelectionQuery("from Singer", Singer.class),
+   *         executor);
+   * CompletionStage<List<Venue>> venues =
+   *     SpannerQueries.resultListAsync(
+   *         sessionFactory,
+   *         session -> session.createSelectionQuery("from Venue", Venue.class),
+   *         executor);
+   * }</pre>
+   *
+   * @param sessionFactory the session factory that is used to open the session for the query
+   * @param queryFactory creates the query for the given session
+   * @param executor the executor that executes the query
+   * @return a {@link CompletionStage} with the results of the query
+   */
+  public static <T> CompletionStage<List<T>> resultListAsync(
+      SessionFactory sessionFactory,
+      Function<Session, SelectionQuery<T>> queryFactory,
+      Executor executor) {
+    return resultListAsync(sessionFactory, queryFactory, executor, null);
+  }
+
+  /**
+   * Executes a query asynchronously on a separate session and JDBC connection at the given read
+   * timestamp. This allows an application to execute the independent secondary reads of an entity
+   * graph, like multiple collections, concurrently, while all reads still see the same consistent
+   * snapshot of the database.
+   *
+   * <p>Example:
+   *
+   * <pre>{@code
+   * session.doWork(connection -> connection.setReadOnly(true));
+   * Transaction transaction = session.beginTransaction();
+   * Singer singer = session.find(Singer.class, singerId);
+   * Timestamp readTimestamp = SpannerQueries.getReadTimestamp(session);
+   * CompletionStage<List<Album>> albums =
+   *     SpannerQueries.resultListAsync(
+   *         sessionFactory,
+   *         s -> s.createSelectionQuery("from Album where singer.id=:id", Album.class)
+   *             .setParameter("id", singerId),
+   *         executor,
+   *         readTimestamp);
+   * CompletionStage<List<Concert>> concerts = ...;
+   * }</pre>
+   *
+   * @param sessionFactory the session factory that is used to open the session for the query
+   * @param queryFactory creates the query for the given session
+   * @param executor the executor that executes the query
+   * @param readTimestamp the timestamp at which the query reads the data, or null for a strong read
+   * @return a {@link CompletionStage} with the results of the query
+   * @see #resultListAsync(SessionFactory, Function, Executor)
+   * @see #getReadTimestamp(Session)
+   */
+  public static <T> CompletionStage<List<T>> resultListAsync(
+      SessionFactory sessionFactory,
+      Function<Session, SelectionQuery<T>> queryFactory,
+      Executor executor,
+      @Nullable Timestamp readTimestamp) {
+    Preconditions.checkNotNull(sessionFactory);
+    Preconditions.checkNotNull(queryFactory);
+    Preconditions.checkNotNull(executor);
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try (Session session = sessionFactory.openSession()) {
+            // The entities are detached when the session is closed, so there is no need to keep
+            // snapshots for dirty checking.
+            session.setDefaultReadOnly(true);
+            SpannerSessionSettings.Builder settings = SpannerSessionSettings.newBuilder();
+            if (readTimestamp != null) {
+              settings.setReadOnlyStaleness("READ_TIMESTAMP " + readTimestamp);
+            }
+            return readWith(
+                session, settings.build(), () -> queryFactory.apply(session).getResultList());
+          }
+        },
+        executor);
+  }
+
+  /**
+   * Returns the read timestamp of the read-only transaction of the given session, or of the last
+   * query that the session executed in auto-commit mode. The read-only transaction must have
+   * executed at least one query. The timestamp can be used to execute other reads at the same
+   * snapshot of the database with {@link #resultListAsync(SessionFactory, Function, Executor,
+   * Timestamp)}.
+   *
+   * @param session a session with a read-only transaction or in auto-commit mode
+   * @return the read timestamp of the last read of the session
+   */
+  public static Timestamp getReadTimestamp(Session session) {
+    Preconditions.checkNotNull(session);
+    return session.doReturningWork(
+        connection ->
+            Timestamp.of(connection.unwrap(CloudSpannerJdbcConnection.class).getReadTimestamp()));
+  }
+
+  /**
+   * Executes the reads of the given function with a maximum staleness, instead of as strong reads.
+   * Spanner chooses the newest timestamp within the staleness bound at which the data can be read
+   * without waiting, which can reduce the latency of reads of data that does not change often, like
+   * catalogs or configuration tables. All queries and entity loads that are executed by the session
+   * in the function use the staleness. Queries that are executed after the function has returned
+   * use the staleness that the connection had before again.
+   *
+   * <p>The session must be in auto-commit mode, which means that it must not have an active
+   * transaction. The session keeps its JDBC connection for the duration of the function, and each
+   * query is executed in a single-use read-only transaction. Changes to entities in the function
+   * are not flushed.
+   *
+   * <p>Example:
+   *
+   * <pre>{@code
+   * List<Country> countries =
+   *     SpannerQueries.readWithMaxStaleness(
+   *         session,
+   *         Duration.ofSeconds(15),
+   *         () -> session.createSelectionQuery("from Country", Country.class).getResultList());
+   * }</pre>
+   *
+   * @param session the session that executes the reads
+   * @param maxStaleness the maximum staleness of the data that is read
+   * @param reads the function that executes the reads
+   * @return the result of the function
+   */
+  public static <T> T readWithMaxStaleness(
+      Session session, Duration maxStaleness, Supplier<T> reads) {
+    return readWithStaleness(session, "MAX_STALENESS", maxStaleness, reads);
+  }
+
+  /**
+   * Executes the reads of the given function at a timestamp that is exactly the given staleness in
+   * the past, instead of as strong reads. The session must be in auto-commit mode.
+   *
+   * @param session the session that executes the reads
+   * @param exactStaleness the staleness of the data that is read
+   * @param reads the function that executes the reads
+   * @return the result of the function
+   * @see #readWithMaxStaleness(Session, Duration, Supplier)
+   */
+  public static <T> T readWithExactStaleness(
+      Session session, Duration exactStaleness, Supplier<T> reads) {
+    return readWithStaleness(session, "EXACT_STALENESS", exactStaleness, reads);
+  }
+
+  /**
+   * Executes the reads of the given function with the given directed read options. Directed reads
+   * route the queries to replicas of a given type or in a given location, for example to send
+   * analytical queries to read-only replicas. Queries that are executed after the function has
+   * returned use the directed read options that the connection had before again.
+   *
+   * <p>The session must be in auto-commit mode, which means that it must not have an active
+   * transaction. The session keeps its JDBC connection for the duration of the function, and each
+   * query is executed in a single-use read-only transaction. Use the {@link DirectedRead}
+   * annotation for read-only transactions.
+   *
+   * <p>Example:
+   *
+   * <pre>{@code
+   * List<Object[]> totals =
+   *     SpannerQueries.readWithDirectedRead(
+   *         session,
+   *         "{\"includeReplicas\":{\"replicaSelections\":[{\"type\":\"READ_ONLY\"}]}}",
+   *         () -> session.createSelectionQuery(totalsQuery, Object[].class).getResultList());
+   * }</pre>
+   *
+   * @param session the session that executes the reads
+   * @param directedRead the JSON representation of the Spanner DirectedReadOptions for the reads
+   * @param reads the function that executes the reads
+   * @return the result of the function
+   */
+  public static <T> T readWithDirectedRead(
+      Session session, String directedRead, Supplier<T> reads) {
+    Preconditions.checkNotNull(directedRead);
+    return readWith(
+        session, SpannerSessionSettings.newBuilder().setDirectedRead(directedRead).build(), reads);
+  }
+
+  private static <T> T readWithStaleness(
+      Session session, String mode, Duration staleness, Supplier<T> reads) {
+    Preconditions.checkNotNull(staleness);
+    Preconditions.checkArgument(!staleness.isNegative(), "Staleness must not be negative");
+    return readWith(
+        session,
+        SpannerSessionSettings.newBuilder()
+            .setReadOnlyStaleness(mode + " " + staleness.toMillis() + "ms")
+            .build(),
+        reads);
+  }
+
+  /**
+   * Executes the reads with the given settings. Hibernate releases the JDBC connection of a session
+   * without a transaction after each query, so the reads are executed in a Hibernate transaction
+   * that holds on to the connection. The connection is switched to auto-commit mode after the
+   * transaction has started, which means that each query is still executed in a single-use
+   * read-only transaction, and the commit is a no-op. The settings are reset to the values that the
+   * connection had before when Hibernate releases the connection.
+   */
+  private static <T> T readWith(
+      Session session, SpannerSessionSettings settings, Supplier<T> reads) {
+    Preconditions.checkNotNull(session);
+    Preconditions.checkNotNull(reads);
+    Preconditions.checkState(
+        !session.getTransaction().isActive(),
+        "Stale and directed reads can only be executed in auto-commit mode");
+    // Changes that were made outside a transaction must not be flushed by the commit.
+    FlushMode flushMode = session.getHibernateFlushMode();
+    session.setHibernateFlushMode(FlushMode.MANUAL);
+    try {
+      Transaction transaction = session.beginTransaction();
+      try {
+        SpannerSessionSettings.applyInAutoCommit(session, settings);
+        T result = reads.get();
+        transaction.commit();
+        return result;
+      } catch (RuntimeException exception) {
+        if (transaction.isActive()) {
+          SpannerSessionSettings.endAutoCommit(session);
+          transaction.rollback();
+        }
+        throw exception;
+      }
+    } finally {
+      session.setHibernateFlushMode(flushMode);
+    }
+  }
+
+  /**
+   * Locks a collection of managed entities with one query per entity type, instead of the one query
+   * per entity that {@link Session#lock(Object, LockMode)} executes. The rows of all entities of
+   * the same type are locked with a single <code>select ... where id in (...) for update</code>
+   * query.
+   *
+   * <p>The force-increment lock modes lock the rows of all entities of the same type and read their
+   * versions with a single query. The versions that are read must be equal to the versions in the
+   * persistence context, and a {@link StaleObjectStateException} is thrown if they are not. The
+   * numeric versions of all entities of the same type are then incremented with a single <code>
+   * update ... set version = version + 1 where id in (...)</code> statement: directly for {@link
+   * LockMode#PESSIMISTIC_FORCE_INCREMENT}, and when the transaction is committed for {@link
+   * LockMode#OPTIMISTIC_FORCE_INCREMENT}. The update is a bulk update, which means that Hibernate
+   * invalidates the second-level cache region of the entity type. Other version types, like
+   * timestamps, are incremented one entity at a time.
+   *
+   * <p>Example:
+   *
+   * <pre>{@code
+   * List<Seat> seats = session.findMultiple(Seat.class, seatIds);
+   * SpannerQueries.lock(session, seats, LockMode.PESSIMISTIC_WRITE);
+   * }</pre>
+   *
+   * @param session the session that manages the entities, with an active transaction
+   * @param entities the entities to lock
+   * @param lockMode one of {@link LockMode#PESSIMISTIC_READ}, {@link LockMode#PESSIMISTIC_WRITE},
+   *     {@link LockMode#PESSIMISTIC_FORCE_INCREMENT} or {@link LockMode#OPTIMISTIC_FORCE_INCREMENT}
+   * @throws StaleObjectStateException if an entity no longer exists, or has been modified by
+   *     another transaction
+   */
+  public static void lock(Session session, Collection<?> entities, LockMode lockMode) {
+    Preconditions.checkNotNull(session);
+    Preconditions.checkNotNull(entities);
+    Preconditions.checkArgument(
+        BATCH_LOCK_MODES.contains(lockMode), "Unsupported lock mode: %s", lockMode);
+    Preconditions.checkState(
+        session.getTransaction().isActive(), "Entities can only be locked in a transaction");
+    PersistenceContext persistenceContext =
+        session.unwrap(SessionImplementor.class).getPersistenceContextInternal();
+    Map<EntityPersister, Map<Object, Object>> entitiesByType = new LinkedHashMap<>();
+    for (Object entity : entities) {
+      EntityEntry entry = persistenceContext.getEntry(entity);
+      Preconditions.checkArgument(
+          entry != null, "Entity is not managed by the session: %s", entity);
+      entitiesByType
+          .computeIfAbsent(entry.getPersister(), ignore -> new LinkedHashMap<>())
+          .put(entry.getId(), entity);
+    }
+    for (Map.Entry<EntityPersister, Map<Object, Object>> entry : entitiesByType.entrySet()) {
+      lock(session, persistenceContext, entry.getKey(), entry.getValue(), lockMode);
+    }
+  }
+
+  private static void lock(
+      Session session,
+      PersistenceContext persistenceContext,
+      EntityPersister persister,
+      Map<Object, Object> entities,
+      LockMode lockMode) {
+    if (lockMode == LockMode.PESSIMISTIC_FORCE_INCREMENT) {
+      incrementVersions(session, persister, entities);
+      return;
+    }
+    if (lockMode == LockMode.OPTIMISTIC_FORCE_INCREMENT) {
+      // The rows are not locked, and the versions are incremented when the transaction commits.
+      verifyVersions(
+          persistenceContext,
+          persister,
+          entities,
+          readVersions(session, persister, entities, LockMode.NONE));
+      for (Object entity : entities.values()) {
+        persistenceContext.getEntry(entity).setLockMode(lockMode);
+      }
+      session
+          .unwrap(SessionImplementor.class)
+          .getActionQueue()
+          .registerCallback(
+              (BeforeCompletionCallback)
+                  completingSession -> incrementVersions(session, persister, entities));
+      return;
+    }
+    List<Object> ids =
+        session
+            .createSelectionQuery(
+                "select id(e) from " + persister.getJpaEntityName() + " e where id(e) in (:ids)",
+                Object.class)
+            .setParameterList("ids", entities.keySet())
+            .setHibernateLockMode(lockMode)
+            .getResultList();
+    for (Object id : entities.keySet()) {
+      if (!ids.contains(id)) {
+        throw new StaleObjectStateException(persister.getEntityName(), id);
+      }
+    }
+    for (Object entity : entities.values()) {
+      persistenceContext.getEntry(entity).setLockMode(lockMode);
+    }
+  }
+
+  /**
+   * Locks the rows of the given entities, verifies that their versions have not changed, and
+   * increments the versions of all rows with a single update statement. Entities that have been
+   * evicted or removed from the session in the meantime are skipped.
+   */
+  private static void incrementVersions(
+      Session session, EntityPersister persister, Map<Object, Object> entities) {
+    SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+    PersistenceContext persistenceContext = sessionImplementor.getPersistenceContextInternal();
+    Map<Object, Object> managedEntities = new LinkedHashMap<>();
+    entities.forEach(
+        (id, entity) -> {
+          if (persistenceContext.getEntry(entity) != null) {
+            managedEntities.put(id, entity);
+          }
+        });
+    if (managedEntities.isEmpty()) {
+      return;
+    }
+    verifyVersions(
+        persistenceContext,
+        persister,
+        managedEntities,
+        readVersions(session, persister, managedEntities, LockMode.PESSIMISTIC_WRITE));
+    if (!Number.class.isAssignableFrom(persister.getVersionJavaType().getJavaTypeClass())) {
+      // Other version types, like timestamps, cannot be incremented in SQL.
+      for (Object entity : managedEntities.values()) {
+        EntityEntry entry = persistenceContext.getEntry(entity);
+        entry.forceLocked(
+            entity,
+            persister.forceVersionIncrement(entry.getId(), entry.getVersion(), sessionImplementor));
+      }
+      return;
+    }
+    // The bulk update also invalidates the second-level cache region of the entity.
+    String version = persister.getPropertyNames()[persister.getVersionPropertyIndex()];
+    int updateCount =
+        session
+            .createMutationQuery(
+                String.format(
+                    "update %s e set e.%s = e.%s + 1 where id(e) in (:ids)",
+                    persister.getJpaEntityName(), version, version))
+            .setParameterList("ids", managedEntities.keySet())
+            .executeUpdate();
+    if (updateCount != managedEntities.size()) {
+      throw new StaleObjectStateException(persister.getEntityName(), null);
+    }
+    for (Object entity : managedEntities.values()) {
+      EntityEntry entry = persistenceContext.getEntry(entity);
+      entry.forceLocked(
+          entity,
+          persister
+              .getVersionJavaType()
+              .next(entry.getVersion(), null, null, null, sessionImplementor));
+    }
+  }
+
+  /** Reads the versions of the given entities with one query, and locks the rows if requested. */
+  private static Map<Object, Object> readVersions(
+      Session session, EntityPersister persister, Map<Object, Object> entities, LockMode lockMode) {
+    Preconditions.checkArgument(
+        persister.isVersioned(), "Entity %s is not versioned", persister.getEntityName());
+    Map<Object, Object> versions = new HashMap<>();
+    session
+        .createSelectionQuery(
+            "select id(e), version(e) from "
+                + persister.getJpaEntityName()
+                + " e where id(e) in (:ids)",
+            Object[].class)
+        .setParameterList("ids", entities.keySet())
+        .setHibernateLockMode(lockMode)
+        .getResultList()
+        .forEach(row -> versions.put(row[0], row[1]));
+    return versions;
+  }
+
+  /**
+   * Throws a {@link StaleObjectStateException} if an entity no longer exists, or if its version is
+   * not equal to the version in the persistence context.
+   */
+  private static void verifyVersions(
+      PersistenceContext persistenceContext,
+      EntityPersister persister,
+      Map<Object, Object> entities,
+      Map<Object, Object> versions) {
+    for (Map.Entry<Object, Object> entity : entities.entrySet()) {
+      EntityEntry entry = persistenceContext.getEntry(entity.getValue());
+      if (!versions.containsKey(entity.getKey())
+          || !Objects.equals(versions.get(entity.getKey()), entry.getVersion())) {
+        throw new StaleObjectStateException(persister.getEntityName(), entity.getKey());
+      }
+    }
+  }
+}
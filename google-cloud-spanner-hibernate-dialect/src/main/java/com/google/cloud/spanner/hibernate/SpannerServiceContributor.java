@@ -22,7 +22,10 @@ import com.google.cloud.spanner.hibernate.schema.SpannerSchemaManagementTool;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.resource.transaction.internal.TransactionCoordinatorBuilderInitiator;
+import org.hibernate.resource.transaction.spi.TransactionCoordinatorBuilder;
 import org.hibernate.service.spi.ServiceContributor;
 import org.hibernate.service.spi.ServiceRegistryImplementor;
 import org.hibernate.tool.schema.UniqueConstraintSchemaUpdateStrategy;
@@ -71,5 +74,33 @@ public class SpannerServiceContributor implements ServiceContributor {
         .applySetting(
             "hibernate.schema_update.unique_constraint_strategy",
             UniqueConstraintSchemaUpdateStrategy.RECREATE_QUIETLY);
+    // A connection provider without a second connection pool for Spanner JDBC URLs.
+    if (SpannerConnectionProvider.isApplicable(serviceRegistryBuilder.getSettings())) {
+      serviceRegistryBuilder.applySetting(
+          AvailableSettings.CONNECTION_PROVIDER, SpannerConnectionProvider.class.getName());
+    }
+    // A transaction coordinator that tells the event listeners which flush belongs to a commit,
+    // and that switches sessions to default read-only mode for read-only transactions.
+    Map<String, Object> settings = serviceRegistryBuilder.getSettings();
+    boolean readOnlyTransactionsDefaultReadOnly =
+        SpannerSettings.getBoolean(
+            settings, SpannerSettings.READ_ONLY_TRANSACTIONS_DEFAULT_READ_ONLY);
+    if (SpannerSettings.getBoolean(settings, SpannerSettings.USE_MUTATIONS)
+        || SpannerSettings.getBoolean(settings, SpannerSettings.LAST_STATEMENT_AT_COMMIT)
+        || readOnlyTransactionsDefaultReadOnly) {
+      serviceRegistryBuilder.addInitiator(
+          new TransactionCoordinatorBuilderInitiator() {
+            @Override
+            public TransactionCoordinatorBuilder initiateService(
+                Map<String, Object> configurationValues, ServiceRegistryImplementor registry) {
+              TransactionCoordinatorBuilder builder =
+                  super.initiateService(configurationValues, registry);
+              return builder.isJta()
+                  ? builder
+                  : new SpannerTransactionCoordinatorBuilder(
+                      builder, readOnlyTransactionsDefaultReadOnly);
+            }
+          });
+    }
   }
 }
@@ -18,38 +18,59 @@
 
 package com.google.cloud.spanner.hibernate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 import org.hibernate.LockMode;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.CollectionPart;
+import org.hibernate.metamodel.mapping.EntityValuedModelPart;
+import org.hibernate.metamodel.mapping.PluralAttributeMapping;
+import org.hibernate.query.spi.QueryOptions;
 import org.hibernate.query.sqm.ComparisonOperator;
 import org.hibernate.sql.ast.Clause;
-import org.hibernate.sql.ast.spi.AbstractSqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAstTranslatorWithMerge;
 import org.hibernate.sql.ast.spi.SqlSelection;
 import org.hibernate.sql.ast.tree.Statement;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
 import org.hibernate.sql.ast.tree.expression.Expression;
 import org.hibernate.sql.ast.tree.expression.Literal;
 import org.hibernate.sql.ast.tree.expression.SqlTuple;
+import org.hibernate.sql.ast.tree.expression.SqlTupleContainer;
 import org.hibernate.sql.ast.tree.expression.Summarization;
 import org.hibernate.sql.ast.tree.from.DerivedTableReference;
 import org.hibernate.sql.ast.tree.from.NamedTableReference;
 import org.hibernate.sql.ast.tree.from.TableGroup;
 import org.hibernate.sql.ast.tree.from.TableReference;
 import org.hibernate.sql.ast.tree.predicate.InArrayPredicate;
+import org.hibernate.sql.ast.tree.predicate.InListPredicate;
 import org.hibernate.sql.ast.tree.predicate.LikePredicate;
 import org.hibernate.sql.ast.tree.select.QueryPart;
+import org.hibernate.sql.ast.tree.select.QuerySpec;
 import org.hibernate.sql.ast.tree.select.SelectClause;
 import org.hibernate.sql.exec.spi.JdbcOperation;
+import org.hibernate.sql.exec.spi.JdbcParameterBindings;
+import org.hibernate.sql.model.ast.ColumnValueBinding;
+import org.hibernate.sql.model.internal.OptionalTableUpdate;
 
 /** We need a translator for the LIKE operator, as Cloud Spanner does not support ESCAPE clauses. */
-public class SpannerSqlAstTranslator<T extends JdbcOperation> extends AbstractSqlAstTranslator<T> {
+public class SpannerSqlAstTranslator<T extends JdbcOperation> extends SqlAstTranslatorWithMerge<T> {
 
   // Spanner lacks the lateral keyword and instead has an unnest/array mechanism
   private boolean correlated;
 
+  private QueryOptions queryOptions;
+
   public SpannerSqlAstTranslator(SessionFactoryImplementor sessionFactory, Statement statement) {
     super(sessionFactory, statement);
   }
 
+  @Override
+  public T translate(JdbcParameterBindings jdbcParameterBindings, QueryOptions queryOptions) {
+    this.queryOptions = queryOptions;
+    return super.translate(jdbcParameterBindings, queryOptions);
+  }
+
   @Override
   public void visitLikePredicate(LikePredicate likePredicate) {
     // Cloud Spanner does not support ESCAPE clauses.
@@ -88,6 +109,99 @@ public class SpannerSqlAstTranslator<T extends JdbcOperation> extends AbstractSq
     appendSql(')');
   }
 
+  /**
+   * Renders tuple IN predicates, like those that are used for batch loading entities with a
+   * composite primary key, as <code>struct(a,b) in unnest([struct(@p1,@p2),...])</code> instead of
+   * a chain of OR and AND expressions.
+   */
+  @Override
+  public void visitInListPredicate(InListPredicate inListPredicate) {
+    SqlTuple tuple = SqlTupleContainer.getSqlTuple(inListPredicate.getTestExpression());
+    List<Expression> listExpressions = inListPredicate.getListExpressions();
+    if (tuple == null
+        || tuple.getExpressions().size() < 2
+        || listExpressions.isEmpty()
+        || !listExpressions.stream()
+            .allMatch(expression -> isTupleOfSize(expression, tuple.getExpressions().size()))) {
+      super.visitInListPredicate(inListPredicate);
+      return;
+    }
+    renderStruct(tuple);
+    if (inListPredicate.isNegated()) {
+      appendSql(" not");
+    }
+    appendSql(" in unnest([");
+    for (int i = 0; i < listExpressions.size(); i++) {
+      if (i > 0) {
+        appendSql(',');
+      }
+      renderStruct(SqlTupleContainer.getSqlTuple(listExpressions.get(i)));
+    }
+    appendSql("])");
+  }
+
+  private static boolean isTupleOfSize(Expression expression, int size) {
+    SqlTuple tuple = SqlTupleContainer.getSqlTuple(expression);
+    return tuple != null && tuple.getExpressions().size() == size;
+  }
+
+  private void renderStruct(SqlTuple tuple) {
+    appendSql("struct(");
+    List<? extends Expression> expressions = tuple.getExpressions();
+    for (int i = 0; i < expressions.size(); i++) {
+      if (i > 0) {
+        appendSql(',');
+      }
+      expressions.get(i).accept(this);
+    }
+    appendSql(')');
+  }
+
+  /**
+   * Renders an upsert as <code>insert or update into table (columns) values (...)</code>, or as
+   * <code>insert or ignore</code> if the table only contains key columns.
+   */
+  @Override
+  protected void renderMergeStatement(OptionalTableUpdate optionalTableUpdate) {
+    List<ColumnValueBinding> bindings = new ArrayList<>(optionalTableUpdate.getValueBindings());
+    bindings.addAll(optionalTableUpdate.getKeyBindings());
+    appendSql(
+        optionalTableUpdate.getValueBindings().isEmpty()
+            ? "insert or ignore into "
+            : "insert or update into ");
+    appendSql(optionalTableUpdate.getMutatingTable().getTableName());
+    appendSql(" (");
+    for (int i = 0; i < bindings.size(); i++) {
+      if (i > 0) {
+        appendSql(',');
+      }
+      appendSql(bindings.get(i).getColumnReference().getColumnExpression());
+    }
+    appendSql(") values (");
+    for (int i = 0; i < bindings.size(); i++) {
+      if (i > 0) {
+        appendSql(',');
+      }
+      bindings.get(i).getValueExpression().accept(this);
+    }
+    appendSql(')');
+  }
+
+  @Override
+  protected void visitReturningColumns(Supplier<List<ColumnReference>> returningColumnsAccess) {
+    List<ColumnReference> returningColumns = returningColumnsAccess.get();
+    if (returningColumns.isEmpty()) {
+      return;
+    }
+    appendSql(" then return ");
+    for (int i = 0; i < returningColumns.size(); i++) {
+      if (i > 0) {
+        appendSql(',');
+      }
+      appendSql(returningColumns.get(i).getColumnExpression());
+    }
+  }
+
   @Override
   public void visitOffsetFetchClause(QueryPart queryPart) {
     renderLimitOffsetClause(queryPart);
@@ -144,7 +258,17 @@ public class SpannerSqlAstTranslator<T extends JdbcOperation> extends AbstractSq
     }
     final TableReference tableReference = tableGroup.getPrimaryTableReference();
     if (tableReference instanceof NamedTableReference) {
-      return renderNamedTableReference((NamedTableReference) tableReference, lockMode);
+      final NamedTableReference namedTableReference = (NamedTableReference) tableReference;
+      if (shouldReadFromBaseTable(tableGroup, namedTableReference)) {
+        // Read the children of an interleaved collection from the base table, so Spanner scans the
+        // rows that are stored together with the parent row instead of using a secondary index.
+        appendSql(namedTableReference.getTableExpression());
+        appendSql("@{FORCE_INDEX=_BASE_TABLE}");
+        registerAffectedTable(namedTableReference);
+        renderTableReferenceIdentificationVariable(namedTableReference);
+        return false;
+      }
+      return renderNamedTableReference(namedTableReference, lockMode);
     }
     final DerivedTableReference derivedTableReference = (DerivedTableReference) tableReference;
     final boolean correlated = derivedTableReference.isLateral();
@@ -160,4 +284,60 @@ public class SpannerSqlAstTranslator<T extends JdbcOperation> extends AbstractSq
     }
     return false;
   }
+
+  /**
+   * Returns true if the given table group loads an interleaved collection, and the query does not
+   * have a table hint for the table of the collection. Table hints of the query take precedence, as
+   * a table can only have one table hint.
+   */
+  private boolean shouldReadFromBaseTable(
+      TableGroup tableGroup, NamedTableReference tableReference) {
+    return isLoadedCollection(tableGroup)
+        && isInterleavedCollection(tableGroup)
+        && (queryOptions == null
+            || !SpannerDialect.hasTableHint(queryOptions, tableReference.getTableExpression()));
+  }
+
+  /**
+   * Returns true if the given table group loads the elements of a collection, either as the root of
+   * a collection loader or as a fetch join. Other joins on a collection, like a join in a query
+   * that is only used for filtering, do not load the collection.
+   */
+  private boolean isLoadedCollection(TableGroup tableGroup) {
+    if (tableGroup.isFetched()) {
+      return true;
+    }
+    QueryPart queryPart = getCurrentQueryPart();
+    return queryPart instanceof QuerySpec
+        && ((QuerySpec) queryPart).getFromClause().getRoots().contains(tableGroup);
+  }
+
+  /**
+   * Returns true if the given table group is a one-to-many collection of entities that are {@link
+   * Interleaved} in the entity that owns the collection. The primary key of the children starts
+   * with the primary key of the parent, which means that the children of a parent can be read with
+   * a key-prefix range scan of the base table.
+   */
+  private static boolean isInterleavedCollection(TableGroup tableGroup) {
+    if (!(tableGroup.getModelPart() instanceof PluralAttributeMapping)) {
+      return false;
+    }
+    PluralAttributeMapping attributeMapping = (PluralAttributeMapping) tableGroup.getModelPart();
+    CollectionPart elementDescriptor = attributeMapping.getElementDescriptor();
+    if (!attributeMapping.getCollectionDescriptor().isOneToMany()
+        || !(elementDescriptor instanceof EntityValuedModelPart)) {
+      return false;
+    }
+    Class<?> elementClass =
+        ((EntityValuedModelPart) elementDescriptor)
+            .getEntityMappingType()
+            .getJavaType()
+            .getJavaTypeClass();
+    Interleaved interleaved = elementClass.getAnnotation(Interleaved.class);
+    return interleaved != null
+        && interleaved
+            .parentEntity()
+            .isAssignableFrom(
+                attributeMapping.findContainingEntityMapping().getJavaType().getJavaTypeClass());
+  }
 }
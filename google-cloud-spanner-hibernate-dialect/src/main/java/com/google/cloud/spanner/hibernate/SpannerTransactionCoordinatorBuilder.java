@@ -0,0 +1,291 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import java.sql.Connection;
+import javax.annotation.Nullable;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.jpa.spi.JpaCompliance;
+import org.hibernate.resource.jdbc.spi.JdbcSessionOwner;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.hibernate.resource.transaction.backend.jdbc.spi.JdbcResourceTransaction;
+import org.hibernate.resource.transaction.backend.jdbc.spi.JdbcResourceTransactionAccess;
+import org.hibernate.resource.transaction.spi.DdlTransactionIsolator;
+import org.hibernate.resource.transaction.spi.IsolationDelegate;
+import org.hibernate.resource.transaction.spi.SynchronizationRegistry;
+import org.hibernate.resource.transaction.spi.TransactionCoordinator;
+import org.hibernate.resource.transaction.spi.TransactionCoordinatorBuilder;
+import org.hibernate.resource.transaction.spi.TransactionCoordinatorOwner;
+import org.hibernate.resource.transaction.spi.TransactionObserver;
+import org.hibernate.tool.schema.internal.exec.JdbcContext;
+
+/**
+ * A {@link TransactionCoordinatorBuilder} that wraps the JDBC transaction coordinator of each
+ * session, so the event listeners of the Spanner dialect can find out whether the flush that they
+ * are handling is the flush that Hibernate executes when the transaction of the session is
+ * committed. Hibernate has no public API for this.
+ *
+ * <p>The wrapped coordinator also switches a session to default read-only mode while it uses a
+ * transaction on a read-only JDBC connection, if {@link
+ * SpannerSettings#READ_ONLY_TRANSACTIONS_DEFAULT_READ_ONLY} has been enabled.
+ *
+ * <p>The builder is only used if a setting that needs this information has been enabled, see {@link
+ * SpannerServiceContributor}.
+ */
+final class SpannerTransactionCoordinatorBuilder implements TransactionCoordinatorBuilder {
+
+  private final TransactionCoordinatorBuilder delegate;
+
+  private final boolean readOnlyTransactionsDefaultReadOnly;
+
+  SpannerTransactionCoordinatorBuilder(
+      TransactionCoordinatorBuilder delegate, boolean readOnlyTransactionsDefaultReadOnly) {
+    this.delegate = delegate;
+    this.readOnlyTransactionsDefaultReadOnly = readOnlyTransactionsDefaultReadOnly;
+  }
+
+  /**
+   * Returns the state of the flush that is executed because the transaction of the given session is
+   * being committed, or null if the session is not committing its transaction.
+   */
+  static @Nullable CommitFlush getCommitFlush(SharedSessionContractImplementor session) {
+    TransactionCoordinator coordinator = session.getTransactionCoordinator();
+    return coordinator instanceof Coordinator
+        ? ((Coordinator) coordinator).owner.commitFlush
+        : null;
+  }
+
+  @Override
+  public TransactionCoordinator buildTransactionCoordinator(
+      TransactionCoordinatorOwner owner, Options options) {
+    Owner wrappedOwner = new Owner(owner, readOnlyTransactionsDefaultReadOnly);
+    return new Coordinator(
+        delegate.buildTransactionCoordinator(wrappedOwner, options), wrappedOwner);
+  }
+
+  @Override
+  public boolean isJta() {
+    return delegate.isJta();
+  }
+
+  @Override
+  public PhysicalConnectionHandlingMode getDefaultConnectionHandlingMode() {
+    return delegate.getDefaultConnectionHandlingMode();
+  }
+
+  @Override
+  public DdlTransactionIsolator buildDdlTransactionIsolator(JdbcContext jdbcContext) {
+    return delegate.buildDdlTransactionIsolator(jdbcContext);
+  }
+
+  /** The state of the flush that is executed when a transaction is committed. */
+  static final class CommitFlush {
+
+    /** Whether this flush uses mutations, or null if that has not yet been determined. */
+    @Nullable Boolean useMutations;
+  }
+
+  /**
+   * The owner of the transaction coordinator of a session. This is the JDBC coordinator of the
+   * session, which also gives the JDBC transaction coordinator access to the JDBC connection.
+   */
+  private static final class Owner
+      implements TransactionCoordinatorOwner, JdbcResourceTransactionAccess {
+    private final TransactionCoordinatorOwner delegate;
+
+    private final boolean readOnlyTransactionsDefaultReadOnly;
+
+    /** The state of the commit flush, or null if the transaction is not being committed. */
+    private @Nullable CommitFlush commitFlush;
+
+    /** Whether the session was switched to default read-only mode for the current transaction. */
+    private boolean switchedToReadOnly;
+
+    private Owner(
+        TransactionCoordinatorOwner delegate, boolean readOnlyTransactionsDefaultReadOnly) {
+      this.delegate = delegate;
+      this.readOnlyTransactionsDefaultReadOnly = readOnlyTransactionsDefaultReadOnly;
+    }
+
+    @Override
+    public JdbcResourceTransaction getResourceLocalTransaction() {
+      return ((JdbcResourceTransactionAccess) delegate).getResourceLocalTransaction();
+    }
+
+    @Override
+    public boolean isActive() {
+      return delegate.isActive();
+    }
+
+    @Override
+    public void startTransactionBoundary() {
+      delegate.startTransactionBoundary();
+    }
+
+    /**
+     * Switches the session to default read-only mode if the transaction uses a read-only JDBC
+     * connection. Hibernate then does not keep a snapshot of the entities that are loaded by the
+     * transaction. Entities that were already in the persistence context are not changed.
+     */
+    @Override
+    public void afterTransactionBegin() {
+      delegate.afterTransactionBegin();
+      if (readOnlyTransactionsDefaultReadOnly
+          && getJdbcSessionOwner() instanceof SessionImplementor) {
+        SessionImplementor session = (SessionImplementor) getJdbcSessionOwner();
+        if (!session.isDefaultReadOnly() && session.doReturningWork(Connection::isReadOnly)) {
+          session.setDefaultReadOnly(true);
+          switchedToReadOnly = true;
+        }
+      }
+    }
+
+    /**
+     * Hibernate flushes the session before the transaction is committed. This method is not called
+     * when the transaction is rolled back.
+     */
+    @Override
+    public void beforeTransactionCompletion() {
+      commitFlush = new CommitFlush();
+      try {
+        delegate.beforeTransactionCompletion();
+      } finally {
+        commitFlush = null;
+      }
+    }
+
+    @Override
+    public void afterTransactionCompletion(boolean successful, boolean delayed) {
+      try {
+        delegate.afterTransactionCompletion(successful, delayed);
+      } finally {
+        if (switchedToReadOnly) {
+          switchedToReadOnly = false;
+          SessionImplementor session = (SessionImplementor) getJdbcSessionOwner();
+          if (session.isOpen()) {
+            session.setDefaultReadOnly(false);
+          }
+        }
+      }
+    }
+
+    @Override
+    public JdbcSessionOwner getJdbcSessionOwner() {
+      return delegate.getJdbcSessionOwner();
+    }
+
+    @Override
+    public void setTransactionTimeOut(int seconds) {
+      delegate.setTransactionTimeOut(seconds);
+    }
+
+    @Override
+    public void flushBeforeTransactionCompletion() {
+      delegate.flushBeforeTransactionCompletion();
+    }
+  }
+
+  /** The transaction coordinator of a session, which gives access to the wrapped owner. */
+  private final class Coordinator implements TransactionCoordinator {
+    private final TransactionCoordinator delegate;
+
+    private final Owner owner;
+
+    private Coordinator(TransactionCoordinator delegate, Owner owner) {
+      this.delegate = delegate;
+      this.owner = owner;
+    }
+
+    @Override
+    public TransactionCoordinatorBuilder getTransactionCoordinatorBuilder() {
+      return SpannerTransactionCoordinatorBuilder.this;
+    }
+
+    @Override
+    public TransactionDriver getTransactionDriverControl() {
+      return delegate.getTransactionDriverControl();
+    }
+
+    @Override
+    public SynchronizationRegistry getLocalSynchronizations() {
+      return delegate.getLocalSynchronizations();
+    }
+
+    @Override
+    public JpaCompliance getJpaCompliance() {
+      return delegate.getJpaCompliance();
+    }
+
+    @Override
+    public void explicitJoin() {
+      delegate.explicitJoin();
+    }
+
+    @Override
+    public boolean isJoined() {
+      return delegate.isJoined();
+    }
+
+    @Override
+    public void pulse() {
+      delegate.pulse();
+    }
+
+    @Override
+    public boolean isActive() {
+      return delegate.isActive();
+    }
+
+    @Override
+    public IsolationDelegate createIsolationDelegate() {
+      return delegate.createIsolationDelegate();
+    }
+
+    @Override
+    public void addObserver(TransactionObserver observer) {
+      delegate.addObserver(observer);
+    }
+
+    @Override
+    public void removeObserver(TransactionObserver observer) {
+      delegate.removeObserver(observer);
+    }
+
+    @Override
+    public void setTimeOut(int seconds) {
+      delegate.setTimeOut(seconds);
+    }
+
+    @Override
+    public int getTimeOut() {
+      return delegate.getTimeOut();
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+      return delegate.isTransactionActive();
+    }
+
+    @Override
+    public void invalidate() {
+      delegate.invalidate();
+    }
+  }
+}
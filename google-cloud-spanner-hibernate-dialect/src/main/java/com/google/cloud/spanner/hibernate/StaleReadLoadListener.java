@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import com.google.common.collect.ImmutableMap;
+import java.sql.Connection;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Load listener that reads entities whose class is annotated with {@link StaleRead} with the
+ * staleness of the annotation when they are loaded by identifier outside a transaction.
+ *
+ * <p>The {@link BeforeLoad} listener runs before the default Hibernate load listener and sets
+ * 'read_only_staleness' on the auto-commit connection of the session, unless the entity is already
+ * in the persistence context. The query that loads the entity is then executed in a single-use
+ * read-only transaction with that staleness. The staleness that the connection had before is
+ * restored when Hibernate releases the connection after the query, also if the load fails. Loads in
+ * a transaction are not affected.
+ */
+final class StaleReadLoadListener {
+
+  private StaleReadLoadListener() {}
+
+  /**
+   * Returns the staleness settings of the entities in the given metadata that are annotated with
+   * {@link StaleRead}, keyed by entity name.
+   */
+  static ImmutableMap<String, SpannerSessionSettings> getStaleReadEntities(Metadata metadata) {
+    ImmutableMap.Builder<String, SpannerSessionSettings> builder = ImmutableMap.builder();
+    for (PersistentClass persistentClass : metadata.getEntityBindings()) {
+      Class<?> mappedClass = persistentClass.getMappedClass();
+      StaleRead staleRead = mappedClass == null ? null : mappedClass.getAnnotation(StaleRead.class);
+      if (staleRead != null) {
+        builder.put(
+            persistentClass.getEntityName(),
+            SpannerSessionSettings.newBuilder()
+                .setReadOnlyStaleness(SpannerSessionSettings.toReadOnlyStaleness(staleRead))
+                .build());
+      }
+    }
+    return builder.build();
+  }
+
+  /** Sets the staleness of the entity before it is loaded. */
+  static final class BeforeLoad implements LoadEventListener {
+    private final ImmutableMap<String, SpannerSessionSettings> settings;
+
+    BeforeLoad(ImmutableMap<String, SpannerSessionSettings> settings) {
+      this.settings = settings;
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) {
+      SpannerSessionSettings staleness = settings.get(event.getEntityClassName());
+      EventSource session = event.getSession();
+      if (staleness != null
+          && !session.isTransactionInProgress()
+          && !isManaged(event)
+          && session.doReturningWork(Connection::getAutoCommit)) {
+        SpannerSessionSettings.apply(session, staleness);
+      }
+    }
+  }
+
+  /** Returns true if the entity that should be loaded is already in the persistence context. */
+  private static boolean isManaged(LoadEvent event) {
+    EventSource session = event.getSession();
+    EntityPersister persister =
+        session.getFactory().getMappingMetamodel().getEntityDescriptor(event.getEntityClassName());
+    EntityKey key = session.generateEntityKey(event.getEntityId(), persister);
+    return session.getPersistenceContextInternal().getEntity(key) != null;
+  }
+}
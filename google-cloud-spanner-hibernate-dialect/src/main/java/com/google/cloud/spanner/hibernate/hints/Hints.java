@@ -18,6 +18,7 @@
 
 package com.google.cloud.spanner.hibernate.hints;
 
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.RpcPriority;
 import com.google.cloud.spanner.hibernate.hints.ReplaceQueryPartsHint.ReplaceMode;
 import javax.annotation.Nullable;
 
@@ -131,6 +132,19 @@ public class Hints {
     return statementHint("STATEMENT_TAG", tag);
   }
 
+  /**
+   * Creates a hint that adds @{RPC_PRIORITY=PRIORITY_value} to the statement. The Spanner JDBC
+   * driver removes this hint from the statement, and sends the statement to Spanner with the given
+   * request priority. Use {@link com.google.cloud.spanner.hibernate.TransactionPriority} to set the
+   * priority of all statements in a transaction.
+   *
+   * @param priority the request priority to use for the statement
+   * @return a hint that can be added as a comment or query hint to a Hibernate statement
+   */
+  public static ReplaceQueryPartsHint rpcPriority(RpcPriority priority) {
+    return statementHint("RPC_PRIORITY", "PRIORITY_" + priority.name());
+  }
+
   /**
    * Creates a hint that adds @{USE_ADDITIONAL_PARALLELISM=value} to the statement.
    *
@@ -202,6 +216,28 @@ public class Hints {
         "(?i)(^|\\s)(select)", "$1$2 @{FORCE_STREAMABLE=" + value + "}", ReplaceMode.FIRST);
   }
 
+  /**
+   * Creates a hint that changes an <code>insert into</code> statement into an <code>insert or
+   * update into</code> statement. Rows that already exist are updated with the inserted values.
+   *
+   * @return a hint that can be added as a comment or query hint to a Hibernate insert statement
+   */
+  public static ReplaceQueryPartsHint insertOrUpdate() {
+    return ReplaceQueryPartsHint.of(
+        "(?i)\\binsert\\s+into\\b", "insert or update into", ReplaceMode.FIRST);
+  }
+
+  /**
+   * Creates a hint that changes an <code>insert into</code> statement into an <code>insert or
+   * ignore into</code> statement. Rows that already exist are skipped.
+   *
+   * @return a hint that can be added as a comment or query hint to a Hibernate insert statement
+   */
+  public static ReplaceQueryPartsHint insertOrIgnore() {
+    return ReplaceQueryPartsHint.of(
+        "(?i)\\binsert\\s+into\\b", "insert or ignore into", ReplaceMode.FIRST);
+  }
+
   /**
    * Creates a hint that adds @{PREFER_STREAMABLE=value} to the first SELECT clause.
    *
@@ -55,7 +55,7 @@ class SchemaUtils {
 
   /** Gets the Spanner {@link Table} by entity class. */
   public static Table getTable(Class<?> entityClass, Metadata metadata) {
-    PersistentClass pc = metadata.getEntityBinding(entityClass.getCanonicalName());
+    PersistentClass pc = metadata.getEntityBinding(entityClass.getName());
     if (pc != null) {
       return pc.getTable();
     }
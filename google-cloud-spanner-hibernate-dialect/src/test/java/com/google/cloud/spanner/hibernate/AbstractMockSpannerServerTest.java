@@ -29,7 +29,14 @@ import com.google.longrunning.Operation;
 import com.google.protobuf.Any;
 import com.google.protobuf.Empty;
 import com.google.spanner.admin.database.v1.UpdateDatabaseDdlMetadata;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.ResultSet;
+import com.google.spanner.v1.ResultSetMetadata;
 import com.google.spanner.v1.SpannerGrpc;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
 import io.grpc.Context;
 import io.grpc.Contexts;
 import io.grpc.Metadata;
@@ -42,8 +49,10 @@ import io.grpc.Status;
 import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.stream.Collectors;
 import org.hibernate.cfg.Configuration;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -120,6 +129,29 @@ public abstract class AbstractMockSpannerServerTest {
         Status.INVALID_ARGUMENT.withDescription("Statement is invalid.").asRuntimeException());
   }
 
+  /** Creates a result set builder with one INT64 column with the name 'id' and no rows. */
+  protected static ResultSet.Builder createIdResultSet() {
+    return ResultSet.newBuilder()
+        .setMetadata(
+            ResultSetMetadata.newBuilder()
+                .setRowType(
+                    StructType.newBuilder()
+                        .addFields(
+                            Field.newBuilder()
+                                .setName("id")
+                                .setType(Type.newBuilder().setCode(TypeCode.INT64).build())
+                                .build())
+                        .build())
+                .build());
+  }
+
+  /** Returns the requests on the mock server that executed the given SQL string. */
+  protected static List<ExecuteSqlRequest> getExecuteSqlRequests(String sql) {
+    return mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+        .filter(request -> request.getSql().equals(sql))
+        .collect(Collectors.toList());
+  }
+
   protected String createTestJdbcUrl() {
     return String.format(
         "jdbc:cloudspanner://localhost:%d/projects/my-project/instances/my-instance"
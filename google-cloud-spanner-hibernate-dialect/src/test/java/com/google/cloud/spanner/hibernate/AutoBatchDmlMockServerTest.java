@@ -0,0 +1,336 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.AbstractMessage;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.CommitRequest;
+import com.google.spanner.v1.ExecuteBatchDmlRequest;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.ResultSet;
+import com.google.spanner.v1.ResultSetMetadata;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StaleStateException;
+import org.hibernate.Transaction;
+import org.junit.Test;
+
+/** Tests automatic DML batching during flushes using an in-memory mock Spanner server. */
+public class AutoBatchDmlMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String INSERT_SQL =
+      "insert into versioned_singer (name,version,id) values (@p1,@p2,@p3)";
+
+  private static final String SELECT_SQL =
+      "select vs1_0.id,vs1_0.name,vs1_0.version from versioned_singer vs1_0 where vs1_0.id=@p1";
+
+  private static final String UPDATE_SQL =
+      "update versioned_singer set name=@p1,version=@p2 where id=@p3 and version=@p4";
+
+  private SessionFactory createSessionFactory(Map<String, String> properties) {
+    return createTestHibernateConfig(ImmutableList.of(VersionedSinger.class), properties)
+        .buildSessionFactory();
+  }
+
+  private void registerInserts(int count) {
+    for (long id = 1L; id <= count; id++) {
+      mockSpanner.putStatementResult(
+          StatementResult.update(
+              Statement.newBuilder(INSERT_SQL)
+                  .bind("p1")
+                  .to("name" + id)
+                  .bind("p2")
+                  .to(0L)
+                  .bind("p3")
+                  .to(id)
+                  .build(),
+              1L));
+    }
+  }
+
+  @Test
+  public void testFlushWithoutAutoBatchDml() {
+    registerInserts(3);
+    try (SessionFactory sessionFactory = createSessionFactory(ImmutableMap.of());
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      for (long id = 1L; id <= 3L; id++) {
+        session.persist(new VersionedSinger(id, "name" + id));
+      }
+      transaction.commit();
+    }
+
+    assertEquals(0, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    assertEquals(
+        3,
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().equals(INSERT_SQL))
+            .count());
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+  }
+
+  @Test
+  public void testFlushWithAutoBatchDml() {
+    registerInserts(3);
+    try (SessionFactory sessionFactory =
+            createSessionFactory(ImmutableMap.of(SpannerSettings.AUTO_BATCH_DML, "true"));
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      for (long id = 1L; id <= 3L; id++) {
+        session.persist(new VersionedSinger(id, "name" + id));
+      }
+      transaction.commit();
+    }
+
+    assertEquals(0, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+    assertEquals(1, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    ExecuteBatchDmlRequest request =
+        mockSpanner.getRequestsOfType(ExecuteBatchDmlRequest.class).get(0);
+    assertTrue(request.getTransaction().hasBegin());
+    assertEquals(3, request.getStatementsCount());
+    for (ExecuteBatchDmlRequest.Statement statement : request.getStatementsList()) {
+      assertEquals(INSERT_SQL, statement.getSql());
+    }
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+  }
+
+  private SessionFactory createSessionFactoryWithInterceptor(Map<String, String> properties) {
+    return createTestHibernateConfig(ImmutableList.of(VersionedSinger.class), properties)
+        .setInterceptor(
+            new TransactionTagInterceptor(
+                ImmutableSet.of(AutoBatchDmlMockServerTest.class.getName()), false))
+        .buildSessionFactory();
+  }
+
+  @Test
+  @AutoBatchDml
+  public void testAutoBatchDmlAnnotation() {
+    registerInserts(2);
+    try (SessionFactory sessionFactory = createSessionFactoryWithInterceptor(ImmutableMap.of());
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      session.persist(new VersionedSinger(1L, "name1"));
+      session.persist(new VersionedSinger(2L, "name2"));
+      transaction.commit();
+    }
+
+    assertEquals(0, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+    assertEquals(1, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    assertEquals(
+        2, mockSpanner.getRequestsOfType(ExecuteBatchDmlRequest.class).get(0).getStatementsCount());
+  }
+
+  @Test
+  @AutoBatchDml(false)
+  public void testAutoBatchDmlAnnotationDisablesSetting() {
+    registerInserts(2);
+    try (SessionFactory sessionFactory =
+            createSessionFactoryWithInterceptor(
+                ImmutableMap.of(SpannerSettings.AUTO_BATCH_DML, "true"));
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      session.persist(new VersionedSinger(1L, "name1"));
+      session.persist(new VersionedSinger(2L, "name2"));
+      transaction.commit();
+    }
+
+    assertEquals(0, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    assertEquals(
+        2,
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().equals(INSERT_SQL))
+            .count());
+  }
+
+  @Test
+  public void testLastStatementAtCommit() {
+    registerInserts(2);
+    try (SessionFactory sessionFactory =
+            createSessionFactory(
+                ImmutableMap.of(SpannerSettings.LAST_STATEMENT_AT_COMMIT, "true"));
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      session.persist(new VersionedSinger(1L, "name1"));
+      session.persist(new VersionedSinger(2L, "name2"));
+      transaction.commit();
+    }
+
+    assertEquals(0, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+    assertEquals(1, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    ExecuteBatchDmlRequest request =
+        mockSpanner.getRequestsOfType(ExecuteBatchDmlRequest.class).get(0);
+    assertEquals(2, request.getStatementsCount());
+    // The batch is sent when the transaction is committed, and is directly followed by the commit.
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+    List<AbstractMessage> requests = mockSpanner.getRequests();
+    int batchIndex = requests.indexOf(request);
+    assertTrue(batchIndex >= 0);
+    assertTrue(requests.get(batchIndex + 1) instanceof CommitRequest);
+  }
+
+  @Test
+  public void testAutoBatchDmlDoesNotUseLastStatements() {
+    registerInserts(1);
+    try (SessionFactory sessionFactory =
+            createSessionFactory(ImmutableMap.of(SpannerSettings.AUTO_BATCH_DML, "true"));
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      session.persist(new VersionedSinger(1L, "name1"));
+      transaction.commit();
+    }
+
+    assertEquals(1, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    assertFalse(
+        mockSpanner.getRequestsOfType(ExecuteBatchDmlRequest.class).get(0).getLastStatements());
+  }
+
+  @Test
+  public void testLastStatementAtCommitIgnoresExplicitFlush() {
+    registerInserts(1);
+    try (SessionFactory sessionFactory =
+            createSessionFactory(
+                ImmutableMap.of(SpannerSettings.LAST_STATEMENT_AT_COMMIT, "true"));
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      session.persist(new VersionedSinger(1L, "name1"));
+      session.flush();
+      transaction.commit();
+    }
+
+    assertEquals(0, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    assertEquals(
+        1,
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().equals(INSERT_SQL))
+            .count());
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+  }
+
+  @Test
+  public void testAutoBatchDmlVerifiesUpdateCounts() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(SELECT_SQL).bind("p1").to(1L).build(),
+            createVersionedSingerResultSet(1L, "name1", 0L)));
+    // Simulate a concurrent update of the row by returning an update count of zero.
+    mockSpanner.putStatementResult(
+        StatementResult.update(
+            Statement.newBuilder(UPDATE_SQL)
+                .bind("p1")
+                .to("updated")
+                .bind("p2")
+                .to(1L)
+                .bind("p3")
+                .to(1L)
+                .bind("p4")
+                .to(0L)
+                .build(),
+            0L));
+
+    try (SessionFactory sessionFactory =
+            createSessionFactory(ImmutableMap.of(SpannerSettings.AUTO_BATCH_DML, "true"));
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      VersionedSinger singer = session.find(VersionedSinger.class, 1L);
+      assertNotNull(singer);
+      singer.name = "updated";
+      RuntimeException exception = assertThrows(RuntimeException.class, session::flush);
+      assertTrue(
+          Throwables.getCausalChain(exception).stream()
+              .anyMatch(StaleStateException.class::isInstance));
+      transaction.rollback();
+    }
+
+    assertEquals(1, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    assertEquals(0, mockSpanner.countRequestsOfType(CommitRequest.class));
+  }
+
+  private static ResultSet createVersionedSingerResultSet(long id, String name, long version) {
+    return ResultSet.newBuilder()
+        .setMetadata(
+            ResultSetMetadata.newBuilder()
+                .setRowType(
+                    StructType.newBuilder()
+                        .addFields(
+                            Field.newBuilder()
+                                .setName("id")
+                                .setType(Type.newBuilder().setCode(TypeCode.INT64).build())
+                                .build())
+                        .addFields(
+                            Field.newBuilder()
+                                .setName("name")
+                                .setType(Type.newBuilder().setCode(TypeCode.STRING).build())
+                                .build())
+                        .addFields(
+                            Field.newBuilder()
+                                .setName("version")
+                                .setType(Type.newBuilder().setCode(TypeCode.INT64).build())
+                                .build())
+                        .build())
+                .build())
+        .addRows(
+            ListValue.newBuilder()
+                .addValues(Value.newBuilder().setStringValue(String.valueOf(id)).build())
+                .addValues(Value.newBuilder().setStringValue(name).build())
+                .addValues(Value.newBuilder().setStringValue(String.valueOf(version)).build())
+                .build())
+        .build();
+  }
+
+  @Table(name = "versioned_singer")
+  @Entity(name = "VersionedSinger")
+  static class VersionedSinger {
+
+    @Id private long id;
+
+    private String name;
+
+    @Version private long version;
+
+    protected VersionedSinger() {}
+
+    VersionedSinger(long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.spanner.v1.DirectedReadOptions;
+import com.google.spanner.v1.DirectedReadOptions.ReplicaSelection;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests directed reads using an in-memory mock Spanner server. */
+public class DirectedReadMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String SELECT_SQL = "select rr1_0.id from report_row rr1_0";
+
+  private static final String READ_ONLY_REPLICAS =
+      "{\"includeReplicas\":{\"replicaSelections\":[{\"type\":\"READ_ONLY\"}]}}";
+
+  private static final String EXCLUDE_US_EAST =
+      "{\"excludeReplicas\":{\"replicaSelections\":[{\"location\":\"us-east1\"}]}}";
+
+  @Before
+  public void registerSelect() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(Statement.of(SELECT_SQL), createIdResultSet().build()));
+  }
+
+  private SessionFactory createSessionFactory(Map<String, String> properties) {
+    return createTestHibernateConfig(ImmutableList.of(ReportRow.class), properties)
+        .setInterceptor(
+            new TransactionTagInterceptor(
+                ImmutableSet.of(DirectedReadMockServerTest.class.getName()), false))
+        .buildSessionFactory();
+  }
+
+  private static Session openSession(SessionFactory sessionFactory, boolean readOnly) {
+    Session session = sessionFactory.openSession();
+    session.doWork(connection -> connection.setReadOnly(readOnly));
+    return session;
+  }
+
+  private static void selectReportRows(Session session) {
+    session.createSelectionQuery("from ReportRow", ReportRow.class).getResultList();
+  }
+
+  private static List<ExecuteSqlRequest> getSelectRequests() {
+    return getExecuteSqlRequests(SELECT_SQL);
+  }
+
+  @Test
+  @DirectedRead(READ_ONLY_REPLICAS)
+  public void testDirectedReadAnnotation() {
+    // The transaction must be started by the annotated method, as the interceptor uses the
+    // annotations of the first method of this class on the stack.
+    try (SessionFactory sessionFactory = createSessionFactory(ImmutableMap.of());
+        Session session = openSession(sessionFactory, true)) {
+      Transaction transaction = session.beginTransaction();
+      selectReportRows(session);
+      transaction.commit();
+    }
+
+    DirectedReadOptions options = getSelectRequests().get(0).getDirectedReadOptions();
+    assertTrue(options.hasIncludeReplicas());
+    assertEquals(
+        ReplicaSelection.Type.READ_ONLY,
+        options.getIncludeReplicas().getReplicaSelections(0).getType());
+  }
+
+  @Test
+  public void testDirectedReadSetting() {
+    try (SessionFactory sessionFactory =
+            createSessionFactory(ImmutableMap.of(SpannerSettings.DIRECTED_READ, EXCLUDE_US_EAST));
+        Session session = openSession(sessionFactory, true)) {
+      Transaction transaction = session.beginTransaction();
+      selectReportRows(session);
+      transaction.commit();
+    }
+
+    DirectedReadOptions options = getSelectRequests().get(0).getDirectedReadOptions();
+    assertTrue(options.hasExcludeReplicas());
+    assertEquals("us-east1", options.getExcludeReplicas().getReplicaSelections(0).getLocation());
+  }
+
+  @Test
+  @DirectedRead(READ_ONLY_REPLICAS)
+  public void testDirectedReadAnnotationOverridesSetting() {
+    try (SessionFactory sessionFactory =
+            createSessionFactory(ImmutableMap.of(SpannerSettings.DIRECTED_READ, EXCLUDE_US_EAST));
+        Session session = openSession(sessionFactory, true)) {
+      Transaction transaction = session.beginTransaction();
+      selectReportRows(session);
+      transaction.commit();
+    }
+
+    DirectedReadOptions options = getSelectRequests().get(0).getDirectedReadOptions();
+    assertTrue(options.hasIncludeReplicas());
+    assertFalse(options.hasExcludeReplicas());
+  }
+
+  @Test
+  @DirectedRead(READ_ONLY_REPLICAS)
+  public void testDirectedReadIgnoredForReadWriteTransaction() {
+    try (SessionFactory sessionFactory = createSessionFactory(ImmutableMap.of());
+        Session session = openSession(sessionFactory, false)) {
+      Transaction transaction = session.beginTransaction();
+      selectReportRows(session);
+      transaction.commit();
+    }
+
+    assertFalse(getSelectRequests().get(0).hasDirectedReadOptions());
+  }
+
+  @Test
+  public void testReadWithDirectedRead() {
+    try (SessionFactory sessionFactory = createSessionFactory(ImmutableMap.of());
+        Session session = sessionFactory.openSession()) {
+      SpannerQueries.readWithDirectedRead(
+          session,
+          READ_ONLY_REPLICAS,
+          () -> {
+            selectReportRows(session);
+            selectReportRows(session);
+            return null;
+          });
+      selectReportRows(session);
+    }
+
+    List<ExecuteSqlRequest> requests = getSelectRequests();
+    assertEquals(3, requests.size());
+    for (ExecuteSqlRequest request : requests.subList(0, 2)) {
+      assertTrue(request.getTransaction().hasSingleUse());
+      assertEquals(
+          ReplicaSelection.Type.READ_ONLY,
+          request.getDirectedReadOptions().getIncludeReplicas().getReplicaSelections(0).getType());
+    }
+    assertFalse(requests.get(2).hasDirectedReadOptions());
+  }
+
+  @Table(name = "report_row")
+  @Entity(name = "ReportRow")
+  static class ReportRow {
+
+    @Id private long id;
+
+    protected ReportRow() {}
+  }
+}
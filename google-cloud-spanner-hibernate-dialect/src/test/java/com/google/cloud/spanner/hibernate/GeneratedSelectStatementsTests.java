@@ -88,7 +88,7 @@ public class GeneratedSelectStatementsTests {
 
   @Test
   public void selectLockAcquisitionTest_pessimisticRead_withPagination() {
-    // the translated statement should include an 'for update' clause.
+    // the translated statement should request shared locks instead of using a 'for update' clause.
     testStatementTranslation(
         x -> {
           Query<SubTestEntity> q =
@@ -98,7 +98,8 @@ public class GeneratedSelectStatementsTests {
           q.setLockMode(LockModeType.PESSIMISTIC_READ);
           q.list();
         },
-        "select ste1_0.id,ste1_0.id1,ste1_0.id2 from SubTestEntity ste1_0 limit ? offset ? for update");
+        "@{LOCK_SCANNED_RANGES=SHARED}select ste1_0.id,ste1_0.id1,ste1_0.id2"
+            + " from SubTestEntity ste1_0 limit ? offset ?");
   }
 
   @Test
@@ -254,6 +255,23 @@ public class GeneratedSelectStatementsTests {
             + "join `test_table` te1_0 on te1_0.`ID1`=ste1_0.id1 and te1_0.id2=ste1_0.id2");
   }
 
+  @Test
+  public void selectCompositeKeyInListTest() {
+    IdClass id1 = new IdClass();
+    id1.id1 = 1L;
+    id1.id2 = "a";
+    IdClass id2 = new IdClass();
+    id2.id1 = 2L;
+    id2.id2 = "b";
+    testStatementTranslation(
+        x ->
+            x.createQuery("select t.stringVal from TestEntity t where t.id in (:ids)", String.class)
+                .setParameterList("ids", ImmutableList.of(id1, id2))
+                .list(),
+        "select te1_0.stringVal from `test_table` te1_0 "
+            + "where struct(te1_0.`ID1`,te1_0.id2) in unnest([struct(?,?),struct(?,?)])");
+  }
+
   private void openSessionAndDo(Consumer<Session> func) {
     Session session = this.metadata.buildSessionFactory().openSession();
     session.beginTransaction();
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.ResultSet;
+import com.google.spanner.v1.ResultSetMetadata;
+import com.google.spanner.v1.ResultSetStats;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.annotations.Generated;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.generator.EventType;
+import org.junit.Test;
+
+/**
+ * Tests reading generated column values with THEN RETURN using an in-memory mock Spanner server.
+ */
+public class GeneratedValuesMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String INSERT_SQL =
+      "insert into computed_singer (name,id) values (@p1,@p2) then return full_name";
+
+  /** The JDBC driver adds the THEN RETURN clause when generated keys are requested. */
+  private static final String GENERATED_KEYS_INSERT_SQL =
+      "insert into computed_singer (name,id) values (@p1,@p2)\nTHEN RETURN `full_name`";
+
+  private static final String SELECT_SQL =
+      "select cs1_0.id,cs1_0.full_name,cs1_0.name from computed_singer cs1_0 where cs1_0.id=@p1";
+
+  private static final String UPDATE_SQL =
+      "update computed_singer set name=@p1 where id=@p2 then return full_name";
+
+  private SessionFactory createSessionFactory() {
+    // Disable JDBC generated keys, so the THEN RETURN clause is rendered by the dialect instead of
+    // being added by the JDBC driver.
+    return createTestHibernateConfig(
+            ImmutableList.of(ComputedSinger.class),
+            ImmutableMap.of(AvailableSettings.USE_GET_GENERATED_KEYS, "false"))
+        .buildSessionFactory();
+  }
+
+  @Test
+  public void testInsertReturnsGeneratedValue() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(INSERT_SQL).bind("p1").to("Alice").bind("p2").to(1L).build(),
+            createFullNameResultSet("Singer Alice")));
+
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      ComputedSinger singer = new ComputedSinger(1L, "Alice");
+      session.persist(singer);
+      transaction.commit();
+      assertEquals("Singer Alice", singer.fullName);
+    }
+
+    assertEquals(
+        0,
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().startsWith("select"))
+            .count());
+  }
+
+  @Test
+  public void testInsertReturnsGeneratedValueWithGeneratedKeys() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(GENERATED_KEYS_INSERT_SQL)
+                .bind("p1")
+                .to("Alice")
+                .bind("p2")
+                .to(1L)
+                .build(),
+            createFullNameResultSet("Singer Alice")));
+
+    // The default settings read the generated value with JDBC generated keys.
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ImmutableList.of(ComputedSinger.class))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      ComputedSinger singer = new ComputedSinger(1L, "Alice");
+      session.persist(singer);
+      transaction.commit();
+      assertEquals("Singer Alice", singer.fullName);
+    }
+
+    // The dialect does not render a THEN RETURN clause of its own for Hibernate's
+    // GetGeneratedKeysDelegate, so the statement contains the clause of the JDBC driver only once.
+    List<String> inserts =
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .map(ExecuteSqlRequest::getSql)
+            .filter(sql -> sql.startsWith("insert"))
+            .collect(Collectors.toList());
+    assertEquals(ImmutableList.of(GENERATED_KEYS_INSERT_SQL), inserts);
+    assertEquals(1, inserts.get(0).toLowerCase().split("then return", -1).length - 1);
+  }
+
+  @Test
+  public void testUpdateReturnsGeneratedValue() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(SELECT_SQL).bind("p1").to(1L).build(),
+            ResultSet.newBuilder()
+                .setMetadata(
+                    ResultSetMetadata.newBuilder()
+                        .setRowType(
+                            StructType.newBuilder()
+                                .addFields(createField("id", TypeCode.INT64))
+                                .addFields(createField("full_name", TypeCode.STRING))
+                                .addFields(createField("name", TypeCode.STRING))
+                                .build())
+                        .build())
+                .addRows(
+                    ListValue.newBuilder()
+                        .addValues(Value.newBuilder().setStringValue("1").build())
+                        .addValues(Value.newBuilder().setStringValue("Singer Alice").build())
+                        .addValues(Value.newBuilder().setStringValue("Alice").build())
+                        .build())
+                .build()));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(UPDATE_SQL).bind("p1").to("Bob").bind("p2").to(1L).build(),
+            createFullNameResultSet("Singer Bob")));
+
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      ComputedSinger singer = session.find(ComputedSinger.class, 1L);
+      assertNotNull(singer);
+      singer.name = "Bob";
+      transaction.commit();
+      assertEquals("Singer Bob", singer.fullName);
+    }
+
+    // Only the initial find executes a query. The generated value is returned by the update.
+    assertEquals(
+        1,
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().startsWith("select"))
+            .count());
+    assertEquals(
+        1,
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().equals(UPDATE_SQL))
+            .count());
+  }
+
+  private static Field createField(String name, TypeCode typeCode) {
+    return Field.newBuilder()
+        .setName(name)
+        .setType(Type.newBuilder().setCode(typeCode).build())
+        .build();
+  }
+
+  private static ResultSet createFullNameResultSet(String fullName) {
+    return ResultSet.newBuilder()
+        .setMetadata(
+            ResultSetMetadata.newBuilder()
+                .setRowType(
+                    StructType.newBuilder()
+                        .addFields(createField("full_name", TypeCode.STRING))
+                        .build())
+                .build())
+        .addRows(
+            ListValue.newBuilder()
+                .addValues(Value.newBuilder().setStringValue(fullName).build())
+                .build())
+        .setStats(ResultSetStats.newBuilder().setRowCountExact(1L).build())
+        .build();
+  }
+
+  @Table(name = "computed_singer")
+  @Entity(name = "ComputedSinger")
+  static class ComputedSinger {
+
+    @Id private long id;
+
+    private String name;
+
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "full_name", insertable = false, updatable = false)
+    private String fullName;
+
+    protected ComputedSinger() {}
+
+    ComputedSinger(long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+}
@@ -22,9 +22,12 @@ import static com.google.cloud.spanner.hibernate.AbstractSchemaGenerationMockSer
 import static com.google.cloud.spanner.hibernate.AbstractSchemaGenerationMockServerTest.GET_SEQUENCES_STATEMENT;
 import static com.google.cloud.spanner.hibernate.AbstractSchemaGenerationMockServerTest.createSequenceRow;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.MockSpannerServiceImpl.SimulatedExecutionTime;
 import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
 import com.google.cloud.spanner.Statement;
@@ -34,6 +37,7 @@ import com.google.cloud.spanner.hibernate.entities.Singer;
 import com.google.cloud.spanner.hibernate.hints.Hints;
 import com.google.cloud.spanner.hibernate.hints.ReplaceQueryPartsHint.ReplaceMode;
 import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.protobuf.ByteString;
@@ -48,6 +52,7 @@ import com.google.spanner.v1.ResultSetStats;
 import com.google.spanner.v1.RollbackRequest;
 import com.google.spanner.v1.StructType;
 import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.TransactionOptions.IsolationLevel;
 import com.google.spanner.v1.Type;
 import com.google.spanner.v1.TypeCode;
 import jakarta.persistence.Column;
@@ -59,12 +64,18 @@ import jakarta.persistence.Table;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 import org.hibernate.LockMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Parameter;
@@ -567,6 +578,319 @@ public class HibernateMockSpannerServerTest extends AbstractMockSpannerServerTes
     }
   }
 
+  @Test
+  public void testSelectWithSharedLock() {
+    String expectedSql =
+        "@{LOCK_SCANNED_RANGES=SHARED}select s1_0.id,s1_0.name from Singer s1_0 where s1_0.id=@p1";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(expectedSql).bind("p1").to(1L).build(),
+            createSingerResultSet(ImmutableList.of(new Singer(1L, "test")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      Singer singer = session.find(Singer.class, 1L, LockMode.PESSIMISTIC_READ);
+      assertNotNull(singer);
+      assertEquals(
+          1,
+          mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+              .filter(request -> request.getSql().equals(expectedSql))
+              .count());
+      transaction.commit();
+    }
+  }
+
+  @Test
+  public void testSharedLockIsMergedWithStatementHint() {
+    String expectedSql =
+        "@{OPTIMIZER_VERSION=1,LOCK_SCANNED_RANGES=SHARED}"
+            + "select s1_0.id,s1_0.name from Singer s1_0 where s1_0.id=@p1";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(expectedSql).bind("p1").to(1L).build(),
+            createSingerResultSet(ImmutableList.of(new Singer(1L, "test")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      List<Singer> singers =
+          session
+              .createQuery("from Singer where id=:id", Singer.class)
+              .setParameter("id", 1L)
+              .addQueryHint(Hints.optimizerVersion("1").toComment())
+              .setHibernateLockMode(LockMode.PESSIMISTIC_READ)
+              .getResultList();
+      assertEquals(1, singers.size());
+      transaction.commit();
+    }
+    assertEquals(
+        1,
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().equals(expectedSql))
+            .count());
+  }
+
+  @Test
+  public void testLockEntityWithSharedLockInRepeatableRead() {
+    String selectSql = "select s1_0.id,s1_0.name from Singer s1_0 where s1_0.id=@p1";
+    String lockSql =
+        "@{LOCK_SCANNED_RANGES=SHARED}select s1_0.id from Singer s1_0 where s1_0.id=@p1";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(selectSql).bind("p1").to(1L).build(),
+            createSingerResultSet(ImmutableList.of(new Singer(1L, "test")))));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(lockSql).bind("p1").to(1L).build(),
+            ResultSet.newBuilder()
+                .setMetadata(
+                    ResultSetMetadata.newBuilder()
+                        .setRowType(
+                            StructType.newBuilder()
+                                .addFields(
+                                    Field.newBuilder()
+                                        .setName("id")
+                                        .setType(Type.newBuilder().setCode(TypeCode.INT64).build())
+                                        .build())
+                                .build())
+                        .build())
+                .addRows(
+                    ListValue.newBuilder()
+                        .addValues(Value.newBuilder().setStringValue("1").build())
+                        .build())
+                .build()));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      session.doWork(
+          connection -> connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ));
+      Transaction transaction = session.beginTransaction();
+      Singer singer = session.find(Singer.class, 1L);
+      session.lock(singer, LockMode.PESSIMISTIC_READ);
+      assertEquals(LockMode.PESSIMISTIC_READ, session.getCurrentLockMode(singer));
+      transaction.commit();
+    }
+
+    List<ExecuteSqlRequest> requests = mockSpanner.getRequestsOfType(ExecuteSqlRequest.class);
+    ExecuteSqlRequest select =
+        requests.stream()
+            .filter(request -> request.getSql().equals(selectSql))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+    assertEquals(
+        IsolationLevel.REPEATABLE_READ, select.getTransaction().getBegin().getIsolationLevel());
+    assertEquals(1, requests.stream().filter(request -> request.getSql().equals(lockSql)).count());
+  }
+
+  @Test
+  public void testQueryTimeout() {
+    String sql = "select s1_0.id,s1_0.name from Singer s1_0";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.of(sql), createSingerResultSet(ImmutableList.of(new Singer(1L, "test")))));
+    mockSpanner.setExecuteStreamingSqlExecutionTime(
+        SimulatedExecutionTime.ofMinimumAndRandomTime(2000, 0));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      // The query timeout is applied by the Spanner JDBC driver.
+      RuntimeException exception =
+          assertThrows(
+              RuntimeException.class,
+              () -> session.createSelectionQuery("from Singer", Singer.class).setTimeout(1).list());
+      assertTrue(
+          Throwables.getCausalChain(exception).stream()
+              .anyMatch(SQLTimeoutException.class::isInstance));
+    } finally {
+      mockSpanner.setExecuteStreamingSqlExecutionTime(SimulatedExecutionTime.none());
+    }
+  }
+
+  @Test
+  public void testReadOnlyTransactionUsesDefaultReadOnlySession() {
+    String sql = "select s1_0.id,s1_0.name from Singer s1_0";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.of(sql), createSingerResultSet(ImmutableList.of(new Singer(1L, "test")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(
+                    ENTITY_CLASSES,
+                    ImmutableMap.of(
+                        SpannerSettings.READ_ONLY_TRANSACTIONS_DEFAULT_READ_ONLY, "true"))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      session.doWork(connection -> connection.setReadOnly(true));
+      Transaction transaction = session.beginTransaction();
+      List<Singer> singers = session.createSelectionQuery("from Singer", Singer.class).list();
+      assertTrue(session.isDefaultReadOnly());
+      assertTrue(session.isReadOnly(singers.get(0)));
+      transaction.commit();
+      assertFalse(session.isDefaultReadOnly());
+    }
+  }
+
+  @Test
+  public void testDefaultReadOnlySessionIsDecidedPerTransaction() {
+    String sql = "select s1_0.id,s1_0.name from Singer s1_0";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.of(sql),
+            createSingerResultSet(
+                ImmutableList.of(new Singer(1L, "test1"), new Singer(2L, "test2")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(
+                    ENTITY_CLASSES,
+                    ImmutableMap.of(
+                        SpannerSettings.READ_ONLY_TRANSACTIONS_DEFAULT_READ_ONLY, "true"))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      for (boolean readOnly : new boolean[] {true, false, true}) {
+        session.doWork(connection -> connection.setReadOnly(readOnly));
+        Transaction transaction = session.beginTransaction();
+        List<Singer> singers = session.createSelectionQuery("from Singer", Singer.class).list();
+        assertEquals(readOnly, session.isDefaultReadOnly());
+        for (Singer singer : singers) {
+          assertEquals(readOnly, session.isReadOnly(singer));
+        }
+        transaction.commit();
+        assertFalse(session.isDefaultReadOnly());
+        session.clear();
+      }
+    }
+  }
+
+  @Test
+  public void testReadWriteTransactionDoesNotUseDefaultReadOnlySession() {
+    String sql = "select s1_0.id,s1_0.name from Singer s1_0";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.of(sql), createSingerResultSet(ImmutableList.of(new Singer(1L, "test")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(
+                    ENTITY_CLASSES,
+                    ImmutableMap.of(
+                        SpannerSettings.READ_ONLY_TRANSACTIONS_DEFAULT_READ_ONLY, "true"))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      List<Singer> singers = session.createSelectionQuery("from Singer", Singer.class).list();
+      assertFalse(session.isDefaultReadOnly());
+      assertFalse(session.isReadOnly(singers.get(0)));
+      transaction.commit();
+    }
+  }
+
+  @Test
+  public void testReadOnlyTransactionDefaultReadOnlyDisabledByDefault() {
+    String sql = "select s1_0.id,s1_0.name from Singer s1_0";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.of(sql), createSingerResultSet(ImmutableList.of(new Singer(1L, "test")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      session.doWork(connection -> connection.setReadOnly(true));
+      Transaction transaction = session.beginTransaction();
+      session.createSelectionQuery("from Singer", Singer.class).list();
+      assertFalse(session.isDefaultReadOnly());
+      transaction.commit();
+    }
+  }
+
+  @Test
+  public void testResultListAsync() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.of("select s1_0.id,s1_0.name from Singer s1_0"),
+            createSingerResultSet(
+                ImmutableList.of(new Singer(1L, "test1"), new Singer(2L, "test2")))));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder("select s1_0.id,s1_0.name from Singer s1_0 where s1_0.id=@p1")
+                .bind("p1")
+                .to(1L)
+                .build(),
+            createSingerResultSet(ImmutableList.of(new Singer(1L, "test1")))));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (SessionFactory sessionFactory =
+        createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory()) {
+      CompletableFuture<List<Singer>> allSingers =
+          SpannerQueries.resultListAsync(
+                  sessionFactory,
+                  session -> session.createSelectionQuery("from Singer", Singer.class),
+                  executor)
+              .toCompletableFuture();
+      CompletableFuture<List<Singer>> singer =
+          SpannerQueries.resultListAsync(
+                  sessionFactory,
+                  session ->
+                      session
+                          .createSelectionQuery("from Singer where id=:id", Singer.class)
+                          .setParameter("id", 1L),
+                  executor)
+              .toCompletableFuture();
+
+      assertEquals(2, allSingers.join().size());
+      assertEquals(1, singer.join().size());
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().startsWith("select s1_0.id,s1_0.name"))
+            .allMatch(request -> request.getTransaction().hasSingleUse()));
+  }
+
+  @Test
+  public void testResultListAsyncAtReadTimestamp() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.of("select s1_0.id,s1_0.name from Singer s1_0"),
+            createSingerResultSet(ImmutableList.of(new Singer(1L, "test1")))));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      session.doWork(connection -> connection.setReadOnly(true));
+      Transaction transaction = session.beginTransaction();
+      session.createSelectionQuery("from Singer", Singer.class).getResultList();
+      Timestamp readTimestamp = SpannerQueries.getReadTimestamp(session);
+      List<Singer> singers =
+          SpannerQueries.resultListAsync(
+                  sessionFactory,
+                  asyncSession -> asyncSession.createSelectionQuery("from Singer", Singer.class),
+                  executor,
+                  readTimestamp)
+              .toCompletableFuture()
+              .join();
+      transaction.commit();
+
+      assertEquals(1, singers.size());
+      ExecuteSqlRequest asyncRequest =
+          mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+              .filter(request -> request.getTransaction().hasSingleUse())
+              .filter(request -> request.getSql().startsWith("select s1_0.id,s1_0.name"))
+              .findFirst()
+              .orElseThrow(AssertionError::new);
+      assertEquals(
+          readTimestamp.toProto(),
+          asyncRequest.getTransaction().getSingleUse().getReadOnly().getReadTimestamp());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void testCollectionWithBatchSize() {
     Singer singer1 = new Singer(1L, "test1");
@@ -606,6 +930,143 @@ public class HibernateMockSpannerServerTest extends AbstractMockSpannerServerTes
     }
   }
 
+  @Test
+  public void testFindMultipleUsesArrayParameter() {
+    String sql = "select s1_0.id,s1_0.name from Singer s1_0 where s1_0.id in unnest(@p1)";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(sql).bind("p1").toInt64Array(new long[] {1L, 2L}).build(),
+            createSingerResultSet(
+                ImmutableList.of(new Singer(1L, "test1"), new Singer(2L, "test2")))));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(sql).bind("p1").toInt64Array(new long[] {1L, 2L, 3L}).build(),
+            createSingerResultSet(
+                ImmutableList.of(
+                    new Singer(1L, "test1"), new Singer(2L, "test2"), new Singer(3L, "test3")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      assertEquals(2, session.findMultiple(Singer.class, ImmutableList.of(1L, 2L)).size());
+    }
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      assertEquals(3, session.findMultiple(Singer.class, ImmutableList.of(1L, 2L, 3L)).size());
+    }
+
+    // Both loads use the same SQL string, regardless of the number of identifiers.
+    List<ExecuteSqlRequest> requests = mockSpanner.getRequestsOfType(ExecuteSqlRequest.class);
+    assertEquals(2, requests.stream().filter(request -> request.getSql().equals(sql)).count());
+  }
+
+  @Test
+  public void testLockMultipleEntities() {
+    String selectSql = "select s1_0.id,s1_0.name from Singer s1_0 where s1_0.id in (@p1,@p2)";
+    String lockSql = "select s1_0.id from Singer s1_0 where s1_0.id in (@p1,@p2) for update";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(selectSql).bind("p1").to(1L).bind("p2").to(2L).build(),
+            createSingerResultSet(
+                ImmutableList.of(new Singer(1L, "test1"), new Singer(2L, "test2")))));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(lockSql).bind("p1").to(1L).bind("p2").to(2L).build(),
+            ResultSet.newBuilder()
+                .setMetadata(
+                    ResultSetMetadata.newBuilder()
+                        .setRowType(
+                            StructType.newBuilder()
+                                .addFields(
+                                    Field.newBuilder()
+                                        .setName("id")
+                                        .setType(Type.newBuilder().setCode(TypeCode.INT64).build())
+                                        .build())
+                                .build())
+                        .build())
+                .addRows(
+                    ListValue.newBuilder()
+                        .addValues(Value.newBuilder().setStringValue("1").build())
+                        .build())
+                .addRows(
+                    ListValue.newBuilder()
+                        .addValues(Value.newBuilder().setStringValue("2").build())
+                        .build())
+                .build()));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      List<Singer> singers =
+          session
+              .createSelectionQuery("from Singer where id in (:ids)", Singer.class)
+              .setParameterList("ids", ImmutableList.of(1L, 2L))
+              .getResultList();
+      assertEquals(2, singers.size());
+      SpannerQueries.lock(session, singers, LockMode.PESSIMISTIC_WRITE);
+      for (Singer singer : singers) {
+        assertEquals(LockMode.PESSIMISTIC_WRITE, session.getCurrentLockMode(singer));
+      }
+      transaction.commit();
+    }
+
+    // All entities are locked with a single query.
+    assertEquals(
+        1,
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().equals(lockSql))
+            .count());
+  }
+
+  @Test
+  public void testMultiLoadUsesArrayParameter() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(
+                    "select s1_0.id,s1_0.name from Singer s1_0 where s1_0.id in unnest(@p1)")
+                .bind("p1")
+                .toInt64Array(new long[] {1L, 2L, 3L})
+                .build(),
+            createSingerResultSet(
+                ImmutableList.of(
+                    new Singer(1L, "test1"), new Singer(2L, "test2"), new Singer(3L, "test3")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      List<Singer> singers = session.byMultipleIds(Singer.class).multiLoad(1L, 2L, 3L);
+      assertEquals(3, singers.size());
+      assertTrue(singers.stream().allMatch(singer -> singer != null));
+    }
+  }
+
+  @Test
+  public void testStatelessSessionUpsert() {
+    String sql = "insert or update into Singer (name,id) values (@p1,@p2)";
+    mockSpanner.putStatementResult(
+        StatementResult.update(
+            Statement.newBuilder(sql).bind("p1").to("test").bind("p2").to(1L).build(), 1L));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ENTITY_CLASSES).buildSessionFactory();
+        StatelessSession session = sessionFactory.openStatelessSession()) {
+      Transaction transaction = session.beginTransaction();
+      session.upsert(new Singer(1L, "test"));
+      transaction.commit();
+    }
+
+    // The upsert is executed as one statement without a preceding select or update.
+    List<ExecuteSqlRequest> requests =
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> !request.getSql().equals(GET_SEQUENCES_STATEMENT.getSql()))
+            .collect(Collectors.toList());
+    assertEquals(1, requests.size());
+    assertEquals(sql, requests.get(0).getSql());
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+  }
+
   ResultSet createSingerResultSet(List<Singer> singers) {
     return ResultSet.newBuilder()
         .setMetadata(
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.hibernate.hints.Hints;
+import com.google.cloud.spanner.hibernate.hints.ReplaceQueryPartsHint.ReplaceMode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.ResultSet;
+import com.google.spanner.v1.ResultSetMetadata;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.Test;
+
+/**
+ * Tests loading and deleting collections of interleaved entities using an in-memory mock Spanner
+ * server.
+ */
+public class InterleavedCollectionMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String SELECT_HALL_SQL =
+      "select ch1_0.id from concert_hall ch1_0 where ch1_0.id=@p1";
+
+  private static final String SELECT_SEATS_SQL =
+      "select s1_0.hall_id,s1_0.seat_number"
+          + " from seat@{FORCE_INDEX=_BASE_TABLE} s1_0 where s1_0.hall_id=@p1";
+
+  private static final String DELETE_HALL_SQL = "delete from concert_hall where id=@p1";
+
+  @Test
+  public void testLoadInterleavedCollection() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(SELECT_HALL_SQL).bind("p1").to(1L).build(),
+            createResultSet(ImmutableList.of("id"), ImmutableList.of(ImmutableList.of("1")))));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(SELECT_SEATS_SQL).bind("p1").to(1L).build(),
+            createResultSet(
+                ImmutableList.of("hall_id", "seat_number"),
+                ImmutableList.of(ImmutableList.of("1", "1"), ImmutableList.of("1", "2")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ImmutableList.of(ConcertHall.class, Seat.class))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      ConcertHall hall = session.find(ConcertHall.class, 1L);
+      assertNotNull(hall);
+      Hibernate.initialize(hall.seats);
+      assertEquals(2, hall.seats.size());
+    }
+  }
+
+  @Test
+  public void testJoinOnInterleavedCollectionDoesNotUseBaseTable() {
+    String sql =
+        "select ch1_0.id from concert_hall ch1_0"
+            + " join seat s1_0 on ch1_0.id=s1_0.hall_id where s1_0.seat_number=@p1";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(sql).bind("p1").to(1L).build(),
+            createResultSet(ImmutableList.of("id"), ImmutableList.of(ImmutableList.of("1")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ImmutableList.of(ConcertHall.class, Seat.class))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      List<ConcertHall> halls =
+          session
+              .createSelectionQuery(
+                  "select h from ConcertHall h join h.seats s where s.seatNumber=:number",
+                  ConcertHall.class)
+              .setParameter("number", 1L)
+              .getResultList();
+      assertEquals(1, halls.size());
+    }
+  }
+
+  @Test
+  public void testForceIndexJoinOnInterleavedCollection() {
+    String sql =
+        "select ch1_0.id from concert_hall ch1_0"
+            + " join seat @{FORCE_INDEX=idx_seat_number} s1_0 on ch1_0.id=s1_0.hall_id"
+            + " where s1_0.seat_number=@p1";
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(sql).bind("p1").to(1L).build(),
+            createResultSet(ImmutableList.of("id"), ImmutableList.of(ImmutableList.of("1")))));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ImmutableList.of(ConcertHall.class, Seat.class))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      List<ConcertHall> halls =
+          session
+              .createQuery(
+                  "select h from ConcertHall h join h.seats s where s.seatNumber=:number",
+                  ConcertHall.class)
+              .setParameter("number", 1L)
+              .addQueryHint(
+                  Hints.forceIndexJoin("seat", "idx_seat_number", ReplaceMode.ALL).toComment())
+              .getResultList();
+      assertEquals(1, halls.size());
+    }
+
+    assertEquals(1, getExecuteSqlRequests(sql).size());
+  }
+
+  @Test
+  public void testRemoveParentOfInterleavedCollectionWithCascadeDelete() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(SELECT_HALL_SQL).bind("p1").to(1L).build(),
+            createResultSet(ImmutableList.of("id"), ImmutableList.of(ImmutableList.of("1")))));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(SELECT_SEATS_SQL).bind("p1").to(1L).build(),
+            createResultSet(
+                ImmutableList.of("hall_id", "seat_number"),
+                ImmutableList.of(ImmutableList.of("1", "1"), ImmutableList.of("1", "2")))));
+    mockSpanner.putStatementResult(
+        StatementResult.update(
+            Statement.newBuilder(DELETE_HALL_SQL).bind("p1").to(1L).build(), 1L));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(
+                    ImmutableList.of(ConcertHall.class, Seat.class),
+                    ImmutableMap.of(SpannerSettings.INTERLEAVED_CASCADE_DELETE, "true"))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      ConcertHall hall = session.find(ConcertHall.class, 1L);
+      session.remove(hall);
+      transaction.commit();
+    }
+
+    // Hibernate loads the seats to cascade the remove to them, but Spanner deletes the rows of the
+    // interleaved seats.
+    List<String> statements =
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .map(ExecuteSqlRequest::getSql)
+            .collect(Collectors.toList());
+    assertTrue(statements.contains(DELETE_HALL_SQL));
+    assertEquals(1, getExecuteSqlRequests(SELECT_SEATS_SQL).size());
+    assertTrue(statements.stream().noneMatch(sql -> sql.startsWith("delete from seat")));
+  }
+
+  @Test
+  public void testRemoveParentOfInterleavedCollectionWithoutCascadeDeleteSetting() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(SELECT_HALL_SQL).bind("p1").to(1L).build(),
+            createResultSet(ImmutableList.of("id"), ImmutableList.of(ImmutableList.of("1")))));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(SELECT_SEATS_SQL).bind("p1").to(1L).build(),
+            createResultSet(ImmutableList.of("hall_id", "seat_number"), ImmutableList.of())));
+    mockSpanner.putStatementResult(
+        StatementResult.update(
+            Statement.newBuilder(DELETE_HALL_SQL).bind("p1").to(1L).build(), 1L));
+
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ImmutableList.of(ConcertHall.class, Seat.class))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      ConcertHall hall = session.find(ConcertHall.class, 1L);
+      session.remove(hall);
+      transaction.commit();
+    }
+
+    // Hibernate loads the seats to delete them, as cascade deletes by Spanner are not enabled.
+    assertEquals(1, getExecuteSqlRequests(SELECT_SEATS_SQL).size());
+  }
+
+  private static ResultSet createResultSet(List<String> columns, List<List<String>> rows) {
+    StructType.Builder rowType = StructType.newBuilder();
+    for (String column : columns) {
+      rowType.addFields(
+          Field.newBuilder()
+              .setName(column)
+              .setType(Type.newBuilder().setCode(TypeCode.INT64).build())
+              .build());
+    }
+    ResultSet.Builder builder =
+        ResultSet.newBuilder()
+            .setMetadata(ResultSetMetadata.newBuilder().setRowType(rowType.build()).build());
+    for (List<String> row : rows) {
+      ListValue.Builder values = ListValue.newBuilder();
+      for (String value : row) {
+        values.addValues(Value.newBuilder().setStringValue(value).build());
+      }
+      builder.addRows(values.build());
+    }
+    return builder.build();
+  }
+
+  @Table(name = "concert_hall")
+  @Entity(name = "ConcertHall")
+  static class ConcertHall {
+
+    @Id private long id;
+
+    @OneToMany(mappedBy = "hall", cascade = CascadeType.REMOVE)
+    private List<Seat> seats;
+
+    protected ConcertHall() {}
+  }
+
+  @Table(name = "seat")
+  @Entity(name = "Seat")
+  @IdClass(SeatId.class)
+  @Interleaved(parentEntity = ConcertHall.class, cascadeDelete = true)
+  static class Seat {
+
+    @Id
+    @ManyToOne
+    @JoinColumn(name = "hall_id")
+    private ConcertHall hall;
+
+    @Id
+    @Column(name = "seat_number")
+    private long seatNumber;
+
+    protected Seat() {}
+  }
+
+  /** The primary key of {@link Seat}, which starts with the primary key of the parent. */
+  static class SeatId implements Serializable {
+
+    private long hall;
+
+    private long seatNumber;
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.CommitRequest;
+import com.google.spanner.v1.ResultSet;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.util.List;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests locking multiple versioned entities with {@link SpannerQueries#lock(Session,
+ * java.util.Collection, LockMode)} using an in-memory mock Spanner server.
+ */
+public class LockVersionedEntitiesMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String SELECT_SQL =
+      "select c1_0.id,c1_0.version from concert c1_0 where c1_0.id in (@p1,@p2)";
+
+  private static final String LOCK_SQL = SELECT_SQL + " for update";
+
+  private static final String UPDATE_SQL =
+      "update concert set version=(version+1) where id in (@p1,@p2)";
+
+  @Before
+  public void registerStatements() {
+    for (String sql : ImmutableList.of(SELECT_SQL, LOCK_SQL)) {
+      mockSpanner.putStatementResult(
+          StatementResult.query(
+              Statement.newBuilder(sql).bind("p1").to(1L).bind("p2").to(2L).build(),
+              createConcertResultSet(1L, 2L)));
+    }
+    mockSpanner.putStatementResult(
+        StatementResult.update(
+            Statement.newBuilder(UPDATE_SQL).bind("p1").to(1L).bind("p2").to(2L).build(), 2L));
+  }
+
+  private static List<Concert> selectConcerts(Session session) {
+    return session
+        .createSelectionQuery("from Concert where id in (:ids)", Concert.class)
+        .setParameterList("ids", ImmutableList.of(1L, 2L))
+        .getResultList();
+  }
+
+  private static EntityEntry getEntry(Session session, Object entity) {
+    return session
+        .unwrap(SessionImplementor.class)
+        .getPersistenceContextInternal()
+        .getEntry(entity);
+  }
+
+  @Test
+  public void testLockWithPessimisticForceIncrement() {
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ImmutableList.of(Concert.class)).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      List<Concert> concerts = selectConcerts(session);
+      SpannerQueries.lock(session, concerts, LockMode.PESSIMISTIC_FORCE_INCREMENT);
+
+      // The versions of all entities are incremented directly with one statement.
+      assertEquals(1, getExecuteSqlRequests(UPDATE_SQL).size());
+      for (Concert concert : concerts) {
+        assertEquals(1L, getEntry(session, concert).getVersion());
+        assertEquals(LockMode.PESSIMISTIC_FORCE_INCREMENT, session.getCurrentLockMode(concert));
+      }
+      transaction.commit();
+    }
+
+    assertEquals(1, getExecuteSqlRequests(LOCK_SQL).size());
+    assertEquals(1, getExecuteSqlRequests(UPDATE_SQL).size());
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+  }
+
+  @Test
+  public void testLockWithOptimisticForceIncrement() {
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ImmutableList.of(Concert.class)).buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      List<Concert> concerts = selectConcerts(session);
+      SpannerQueries.lock(session, concerts, LockMode.OPTIMISTIC_FORCE_INCREMENT);
+
+      // The versions are incremented when the transaction is committed.
+      assertEquals(0, getExecuteSqlRequests(UPDATE_SQL).size());
+      for (Concert concert : concerts) {
+        assertEquals(0L, getEntry(session, concert).getVersion());
+        assertEquals(LockMode.OPTIMISTIC_FORCE_INCREMENT, session.getCurrentLockMode(concert));
+      }
+      assertEquals(0, getExecuteSqlRequests(LOCK_SQL).size());
+      transaction.commit();
+
+      assertEquals(1, getExecuteSqlRequests(UPDATE_SQL).size());
+      for (Concert concert : concerts) {
+        assertEquals(1L, getEntry(session, concert).getVersion());
+      }
+    }
+
+    // The rows are only locked when the transaction is committed. The versions are read with the
+    // same query as the entities when the entities are locked.
+    assertEquals(1, getExecuteSqlRequests(LOCK_SQL).size());
+    assertEquals(2, getExecuteSqlRequests(SELECT_SQL).size());
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+  }
+
+  private static ResultSet createConcertResultSet(long... ids) {
+    ResultSet.Builder builder = createIdResultSet();
+    builder
+        .getMetadataBuilder()
+        .getRowTypeBuilder()
+        .addFields(
+            Field.newBuilder()
+                .setName("version")
+                .setType(Type.newBuilder().setCode(TypeCode.INT64).build())
+                .build());
+    for (long id : ids) {
+      builder.addRows(
+          ListValue.newBuilder()
+              .addValues(Value.newBuilder().setStringValue(String.valueOf(id)).build())
+              .addValues(Value.newBuilder().setStringValue("0").build())
+              .build());
+    }
+    return builder.build();
+  }
+
+  @Table(name = "concert")
+  @Entity(name = "Concert")
+  static class Concert {
+
+    @Id private long id;
+
+    @Version private long version;
+
+    protected Concert() {}
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.CommitRequest;
+import com.google.spanner.v1.ExecuteBatchDmlRequest;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.Mutation;
+import com.google.spanner.v1.ResultSet;
+import com.google.spanner.v1.ResultSetMetadata;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.Test;
+
+/** Tests writing entities as mutations using an in-memory mock Spanner server. */
+public class MutationFlushMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String INSERT_SQL = "insert into mutation_singer (name,id) values (@p1,@p2)";
+
+  private static final String SELECT_SQL =
+      "select ms1_0.id,ms1_0.name from mutation_singer ms1_0 where ms1_0.id=@p1";
+
+  private SessionFactory createSessionFactory() {
+    return createTestHibernateConfig(
+            ImmutableList.of(MutationSinger.class),
+            ImmutableMap.of(SpannerSettings.USE_MUTATIONS, "true"))
+        .buildSessionFactory();
+  }
+
+  private void registerSelect() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(SELECT_SQL).bind("p1").to(1L).build(),
+            ResultSet.newBuilder()
+                .setMetadata(
+                    ResultSetMetadata.newBuilder()
+                        .setRowType(
+                            StructType.newBuilder()
+                                .addFields(
+                                    Field.newBuilder()
+                                        .setName("id")
+                                        .setType(Type.newBuilder().setCode(TypeCode.INT64).build())
+                                        .build())
+                                .addFields(
+                                    Field.newBuilder()
+                                        .setName("name")
+                                        .setType(Type.newBuilder().setCode(TypeCode.STRING).build())
+                                        .build())
+                                .build())
+                        .build())
+                .addRows(
+                    ListValue.newBuilder()
+                        .addValues(Value.newBuilder().setStringValue("1").build())
+                        .addValues(Value.newBuilder().setStringValue("name1").build())
+                        .build())
+                .build()));
+  }
+
+  @Test
+  public void testCommitUsesMutations() {
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      session.persist(new MutationSinger(1L, "name1"));
+      session.persist(new MutationSinger(2L, "name2"));
+      transaction.commit();
+    }
+
+    assertEquals(0, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+    assertEquals(0, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+    CommitRequest commitRequest = mockSpanner.getRequestsOfType(CommitRequest.class).get(0);
+    // The client library combines the inserts into the same table into one mutation with a row for
+    // each entity.
+    assertEquals(1, commitRequest.getMutationsCount());
+    Mutation mutation = commitRequest.getMutations(0);
+    assertTrue(mutation.hasInsert());
+    assertEquals("mutation_singer", mutation.getInsert().getTable());
+    assertTrue(mutation.getInsert().getColumnsList().contains("id"));
+    assertTrue(mutation.getInsert().getColumnsList().contains("name"));
+    assertEquals(2, mutation.getInsert().getValuesCount());
+  }
+
+  @Test
+  public void testExplicitFlushUsesDml() {
+    mockSpanner.putStatementResult(
+        StatementResult.update(
+            Statement.newBuilder(INSERT_SQL).bind("p1").to("name1").bind("p2").to(1L).build(), 1L));
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      session.persist(new MutationSinger(1L, "name1"));
+      // The insert must be visible to queries that follow the flush, so it is not written as a
+      // mutation.
+      session.flush();
+      transaction.commit();
+    }
+
+    assertEquals(
+        1,
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().equals(INSERT_SQL))
+            .count());
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+    assertEquals(0, mockSpanner.getRequestsOfType(CommitRequest.class).get(0).getMutationsCount());
+  }
+
+  @Test
+  public void testDeleteUsesMutation() {
+    registerSelect();
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      MutationSinger singer = session.find(MutationSinger.class, 1L);
+      assertNotNull(singer);
+      session.remove(singer);
+      transaction.commit();
+    }
+
+    assertEquals(1, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+    CommitRequest commitRequest = mockSpanner.getRequestsOfType(CommitRequest.class).get(0);
+    assertEquals(1, commitRequest.getMutationsCount());
+    Mutation mutation = commitRequest.getMutations(0);
+    assertTrue(mutation.hasDelete());
+    assertEquals("mutation_singer", mutation.getDelete().getTable());
+    assertEquals("1", mutation.getDelete().getKeySet().getKeys(0).getValues(0).getStringValue());
+  }
+
+  @Test
+  public void testUpdateUsesMutation() {
+    registerSelect();
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      MutationSinger singer = session.find(MutationSinger.class, 1L);
+      assertNotNull(singer);
+      singer.name = "updated";
+      transaction.commit();
+
+      // The entity is not dirty anymore after the update was written as a mutation.
+      transaction = session.beginTransaction();
+      session.flush();
+      transaction.commit();
+    }
+
+    assertEquals(1, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+    assertEquals(
+        SELECT_SQL, mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).get(0).getSql());
+    assertEquals(0, mockSpanner.countRequestsOfType(ExecuteBatchDmlRequest.class));
+    assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+    CommitRequest commitRequest = mockSpanner.getRequestsOfType(CommitRequest.class).get(0);
+    assertEquals(1, commitRequest.getMutationsCount());
+    Mutation mutation = commitRequest.getMutations(0);
+    assertTrue(mutation.hasUpdate());
+    assertEquals("mutation_singer", mutation.getUpdate().getTable());
+    int nameIndex = mutation.getUpdate().getColumnsList().indexOf("name");
+    assertEquals(
+        "updated", mutation.getUpdate().getValues(0).getValues(nameIndex).getStringValue());
+  }
+
+  @Table(name = "mutation_singer")
+  @Entity(name = "MutationSinger")
+  static class MutationSinger {
+
+    @Id private long id;
+
+    private String name;
+
+    protected MutationSinger() {}
+
+    MutationSinger(long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.spanner.v1.BeginTransactionRequest;
+import com.google.spanner.v1.CommitRequest;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests executing bulk statements as Partitioned DML using an in-memory mock Spanner server. */
+public class PartitionedDmlMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String DELETE_SQL = "delete from event where id<@p1";
+
+  @Before
+  public void registerDelete() {
+    mockSpanner.putStatementResult(
+        StatementResult.update(Statement.newBuilder(DELETE_SQL).bind("p1").to(100L).build(), 99L));
+  }
+
+  @Test
+  public void testExecutePartitionedUpdate() {
+    try (SessionFactory sessionFactory =
+        createTestHibernateConfig(ImmutableList.of(Event.class)).buildSessionFactory()) {
+      int updateCount =
+          SpannerQueries.executePartitionedUpdate(
+              sessionFactory,
+              session ->
+                  session
+                      .createMutationQuery("delete from Event where id<:maxId")
+                      .setParameter("maxId", 100L));
+      assertEquals(99, updateCount);
+    }
+
+    assertPartitionedDml();
+  }
+
+  @Test
+  @PartitionedDml
+  public void testPartitionedDmlAnnotation() {
+    try (SessionFactory sessionFactory =
+            createTestHibernateConfig(ImmutableList.of(Event.class))
+                .setInterceptor(
+                    new TransactionTagInterceptor(
+                        ImmutableSet.of(PartitionedDmlMockServerTest.class.getName()), false))
+                .buildSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      int updateCount =
+          session
+              .createMutationQuery("delete from Event where id<:maxId")
+              .setParameter("maxId", 100L)
+              .executeUpdate();
+      transaction.commit();
+      assertEquals(99, updateCount);
+    }
+
+    assertPartitionedDml();
+  }
+
+  private static void assertPartitionedDml() {
+    assertEquals(1, mockSpanner.countRequestsOfType(BeginTransactionRequest.class));
+    assertTrue(
+        mockSpanner
+            .getRequestsOfType(BeginTransactionRequest.class)
+            .get(0)
+            .getOptions()
+            .hasPartitionedDml());
+    ExecuteSqlRequest request =
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(executeSqlRequest -> executeSqlRequest.getSql().equals(DELETE_SQL))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+    assertTrue(request.getTransaction().hasId());
+    assertEquals(0, mockSpanner.countRequestsOfType(CommitRequest.class));
+  }
+
+  @Table(name = "event")
+  @Entity(name = "Event")
+  static class Event {
+
+    @Id private long id;
+
+    protected Event() {}
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.PartitionQueryRequest;
+import com.google.spanner.v1.ResultSet;
+import com.google.spanner.v1.ResultSetMetadata;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.Test;
+
+/** Tests executing queries as partitioned queries using an in-memory mock Spanner server. */
+public class PartitionedQueryMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String SELECT_SQL = "select es1_0.name from export_singer es1_0";
+
+  /** Partitioned queries can only be executed on connections in auto-commit mode. */
+  private SessionFactory createSessionFactory() {
+    return createTestHibernateConfig(
+            ImmutableList.of(ExportSinger.class),
+            ImmutableMap.of(AvailableSettings.AUTOCOMMIT, "true"))
+        .buildSessionFactory();
+  }
+
+  @Test
+  public void testPartitionedResultStream() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.of(SELECT_SQL),
+            ResultSet.newBuilder()
+                .setMetadata(
+                    ResultSetMetadata.newBuilder()
+                        .setRowType(
+                            StructType.newBuilder()
+                                .addFields(
+                                    Field.newBuilder()
+                                        .setName("name")
+                                        .setType(Type.newBuilder().setCode(TypeCode.STRING).build())
+                                        .build())
+                                .build())
+                        .build())
+                .addRows(
+                    ListValue.newBuilder()
+                        .addValues(Value.newBuilder().setStringValue("name1").build())
+                        .build())
+                .addRows(
+                    ListValue.newBuilder()
+                        .addValues(Value.newBuilder().setStringValue("name2").build())
+                        .build())
+                .build()));
+
+    List<String> names;
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      try (Stream<String> stream =
+          SpannerQueries.getPartitionedResultStream(
+              session,
+              session.createSelectionQuery("select name from ExportSinger", String.class),
+              true,
+              4)) {
+        names = stream.sorted().collect(Collectors.toList());
+      }
+      assertFalse(
+          session.doReturningWork(
+              connection -> {
+                try (java.sql.Statement statement = connection.createStatement();
+                    java.sql.ResultSet resultSet =
+                        statement.executeQuery("show variable auto_partition_mode")) {
+                  assertTrue(resultSet.next());
+                  return resultSet.getBoolean(1);
+                }
+              }));
+    }
+
+    assertEquals(1, mockSpanner.countRequestsOfType(PartitionQueryRequest.class));
+    assertEquals(
+        SELECT_SQL, mockSpanner.getRequestsOfType(PartitionQueryRequest.class).get(0).getSql());
+    List<ExecuteSqlRequest> requests =
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(request -> request.getSql().equals(SELECT_SQL))
+            .collect(Collectors.toList());
+    assertFalse(requests.isEmpty());
+    for (ExecuteSqlRequest request : requests) {
+      assertFalse(request.getPartitionToken().isEmpty());
+      assertTrue(request.getDataBoostEnabled());
+    }
+    // The mock server returns all rows of the query for each partition. The stream must return the
+    // rows of each partition exactly once.
+    List<String> expected = new ArrayList<>();
+    for (int partition = 0; partition < requests.size(); partition++) {
+      expected.add("name1");
+      expected.add("name2");
+    }
+    Collections.sort(expected);
+    assertEquals(expected, names);
+  }
+
+  @Test
+  public void testPartitionedResultStreamInReadWriteTransaction() {
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      assertThrows(
+          IllegalStateException.class,
+          () ->
+              SpannerQueries.getPartitionedResultStream(
+                  session,
+                  session.createSelectionQuery("select name from ExportSinger", String.class),
+                  false,
+                  0));
+      transaction.rollback();
+    }
+
+    assertEquals(0, mockSpanner.countRequestsOfType(PartitionQueryRequest.class));
+  }
+
+  @Table(name = "export_singer")
+  @Entity(name = "ExportSinger")
+  static class ExportSinger {
+
+    @Id private long id;
+
+    private String name;
+
+    protected ExportSinger() {}
+  }
+}
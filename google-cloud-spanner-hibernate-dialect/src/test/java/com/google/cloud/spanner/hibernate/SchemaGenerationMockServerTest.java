@@ -231,6 +231,40 @@ public class SchemaGenerationMockServerTest extends AbstractSchemaGenerationMock
     }
   }
 
+  @Test
+  public void testInterleavedCascadeDeleteDoesNotChangeSchema() {
+    List<String> defaultSchema = generateInterleavedSchema(ImmutableMap.of());
+    List<String> cascadeDeleteSchema =
+        generateInterleavedSchema(
+            ImmutableMap.of(SpannerSettings.INTERLEAVED_CASCADE_DELETE, "true"));
+
+    // Marking the collection key with ON DELETE CASCADE must not change the DDL of the child.
+    assertEquals(defaultSchema, cascadeDeleteSchema);
+    assertTrue(cascadeDeleteSchema.stream().anyMatch(sql -> sql.startsWith("create table seat")));
+  }
+
+  private List<String> generateInterleavedSchema(ImmutableMap<String, String> properties) {
+    mockDatabaseAdmin.getRequests().clear();
+    addDdlResponseToSpannerAdmin();
+    //noinspection EmptyTryBlock
+    try (SessionFactory ignore =
+        createTestHibernateConfig(
+                ImmutableList.of(
+                    InterleavedCollectionMockServerTest.ConcertHall.class,
+                    InterleavedCollectionMockServerTest.Seat.class),
+                ImmutableMap.<String, String>builder()
+                    .put("hibernate.hbm2ddl.auto", "create-only")
+                    .putAll(properties)
+                    .build())
+            .buildSessionFactory()) {
+      // do nothing, just generate the schema.
+    }
+    return mockDatabaseAdmin.getRequests().stream()
+        .filter(request -> request instanceof UpdateDatabaseDdlRequest)
+        .flatMap(request -> ((UpdateDatabaseDdlRequest) request).getStatementsList().stream())
+        .collect(Collectors.toList());
+  }
+
   @Test
   public void testDropEmptySchema() {
     addDdlResponseToSpannerAdmin();
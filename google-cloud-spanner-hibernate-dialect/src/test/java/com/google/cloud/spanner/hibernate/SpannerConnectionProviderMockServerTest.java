@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.connection.SpannerPool;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.spanner.v1.BatchCreateSessionsRequest;
+import com.google.spanner.v1.CreateSessionRequest;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.junit.Test;
+
+/** Tests the Spanner connection provider using an in-memory mock Spanner server. */
+public class SpannerConnectionProviderMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String SELECT_SQL = "select v1_0.id from venue v1_0";
+
+  private static final ImmutableMap<String, String> USE_SPANNER_CONNECTION_PROVIDER =
+      ImmutableMap.of(SpannerSettings.USE_SPANNER_CONNECTION_PROVIDER, "true");
+
+  private SessionFactory createSessionFactory(Map<String, String> properties) {
+    return createTestHibernateConfig(ImmutableList.of(Venue.class), properties)
+        .buildSessionFactory();
+  }
+
+  private static ConnectionProvider getConnectionProvider(SessionFactory sessionFactory) {
+    return sessionFactory
+        .getSessionFactoryOptions()
+        .getServiceRegistry()
+        .requireService(ConnectionProvider.class);
+  }
+
+  @Test
+  public void testSpannerConnectionProviderIsNotUsedByDefault() {
+    try (SessionFactory sessionFactory = createSessionFactory(ImmutableMap.of())) {
+      ConnectionProvider connectionProvider = getConnectionProvider(sessionFactory);
+      assertFalse(connectionProvider.isUnwrappableAs(SpannerConnectionProvider.class));
+    }
+  }
+
+  @Test
+  public void testSpannerConnectionProviderCanBeEnabled() {
+    try (SessionFactory sessionFactory = createSessionFactory(USE_SPANNER_CONNECTION_PROVIDER)) {
+      ConnectionProvider connectionProvider = getConnectionProvider(sessionFactory);
+      assertTrue(connectionProvider.isUnwrappableAs(SpannerConnectionProvider.class));
+    }
+  }
+
+  @Test
+  public void testSpannerConnectionProviderIsNotUsedWithPoolSize() {
+    for (String poolSize : ImmutableList.of(AvailableSettings.POOL_SIZE, "connection.pool_size")) {
+      try (SessionFactory sessionFactory =
+          createSessionFactory(
+              ImmutableMap.of(
+                  SpannerSettings.USE_SPANNER_CONNECTION_PROVIDER, "true", poolSize, "2"))) {
+        ConnectionProvider connectionProvider = getConnectionProvider(sessionFactory);
+        assertFalse(connectionProvider.isUnwrappableAs(SpannerConnectionProvider.class));
+      }
+    }
+  }
+
+  @Test
+  public void testSpannerConnectionProviderAsProviderClass() {
+    try (SessionFactory sessionFactory =
+        createSessionFactory(
+            ImmutableMap.of(
+                AvailableSettings.CONNECTION_PROVIDER,
+                SpannerConnectionProvider.class.getName()))) {
+      ConnectionProvider connectionProvider = getConnectionProvider(sessionFactory);
+      assertTrue(connectionProvider.isUnwrappableAs(SpannerConnectionProvider.class));
+    }
+  }
+
+  @Test
+  public void testWarmUpAtStartup() throws InterruptedException {
+    // Close any Spanner client that was created by a previous test.
+    SpannerPool.closeSpannerPool();
+    mockSpanner.clearRequests();
+
+    try (SessionFactory ignored = createSessionFactory(USE_SPANNER_CONNECTION_PROVIDER)) {
+      // The Spanner client creates its sessions in the background when the session factory is
+      // started, without executing any SQL statements.
+      Stopwatch watch = Stopwatch.createStarted();
+      while (countSessionRequests() == 0 && watch.elapsed(TimeUnit.SECONDS) < 5L) {
+        Thread.sleep(1L);
+      }
+      assertTrue(countSessionRequests() > 0);
+      assertEquals(0, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+    }
+  }
+
+  private static long countSessionRequests() {
+    return mockSpanner.countRequestsOfType(BatchCreateSessionsRequest.class)
+        + mockSpanner.countRequestsOfType(CreateSessionRequest.class);
+  }
+
+  @Test
+  public void testConnectionMetrics() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(Statement.of(SELECT_SQL), createIdResultSet().build()));
+
+    try (SessionFactory sessionFactory = createSessionFactory(USE_SPANNER_CONNECTION_PROVIDER)) {
+      SpannerConnectionProvider connectionProvider =
+          getConnectionProvider(sessionFactory).unwrap(SpannerConnectionProvider.class);
+      // Hibernate also acquires a connection to read the JDBC metadata at startup.
+      long acquiredConnections = connectionProvider.getAcquiredConnectionCount();
+      try (Session session = sessionFactory.openSession()) {
+        // The session holds on to its connection until the transaction has ended.
+        Transaction transaction = session.beginTransaction();
+        assertTrue(
+            session.createSelectionQuery("from Venue", Venue.class).getResultList().isEmpty());
+        assertEquals(1, connectionProvider.getOpenConnectionCount());
+        transaction.commit();
+      }
+      assertEquals(0, connectionProvider.getOpenConnectionCount());
+      assertEquals(acquiredConnections + 1L, connectionProvider.getAcquiredConnectionCount());
+    }
+  }
+
+  @Table(name = "venue")
+  @Entity(name = "Venue")
+  static class Venue {
+
+    @Id private long id;
+
+    protected Venue() {}
+  }
+}
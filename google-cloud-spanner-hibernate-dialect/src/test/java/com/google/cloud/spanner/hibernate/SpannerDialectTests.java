@@ -241,7 +241,7 @@ public class SpannerDialectTests {
 
   @Test
   public void getReadLockStringTest() {
-    assertEquals(" for update", this.spannerDialect.getReadLockString(Timeouts.WAIT_FOREVER));
+    assertEquals("", this.spannerDialect.getReadLockString(Timeouts.WAIT_FOREVER));
   }
 
   @Test
@@ -252,7 +252,7 @@ public class SpannerDialectTests {
 
   @Test
   public void getReadLockStringAliasTest() {
-    assertEquals(" for update", this.spannerDialect.getReadLockString("a", Timeouts.WAIT_FOREVER));
+    assertEquals("", this.spannerDialect.getReadLockString("a", Timeouts.WAIT_FOREVER));
   }
 
   @Test
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.BeginTransactionRequest;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.TransactionOptions.ReadOnly;
+import io.grpc.Status;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Duration;
+import java.util.List;
+import org.hibernate.JDBCException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests stale reads using an in-memory mock Spanner server. */
+public class StaleReadMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String SELECT_SQL = "select v1_0.id from venue v1_0";
+
+  private static final String FIND_COUNTRY_SQL =
+      "select c1_0.id from country c1_0 where c1_0.id=@p1";
+
+  @Before
+  public void registerSelect() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(Statement.of(SELECT_SQL), createIdResultSet().build()));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            Statement.newBuilder(FIND_COUNTRY_SQL).bind("p1").to(1L).build(),
+            createIdResultSet()
+                .addRows(
+                    ListValue.newBuilder()
+                        .addValues(Value.newBuilder().setStringValue("1").build())
+                        .build())
+                .build()));
+  }
+
+  private SessionFactory createReadOnlySessionFactory() {
+    return createTestHibernateConfig(ImmutableList.of(Venue.class))
+        .setInterceptor(
+            new TransactionTagInterceptor(
+                ImmutableSet.of(StaleReadMockServerTest.class.getName()), false))
+        .buildSessionFactory();
+  }
+
+  /**
+   * Creates a session factory whose connections are in auto-commit mode, so queries outside a
+   * transaction are executed in single-use read-only transactions.
+   */
+  private SessionFactory createAutoCommitSessionFactory(Class<?>... entityClasses) {
+    return createTestHibernateConfig(
+            ImmutableList.copyOf(entityClasses),
+            ImmutableMap.of(AvailableSettings.AUTOCOMMIT, "true"))
+        .buildSessionFactory();
+  }
+
+  private static Session openReadOnlySession(SessionFactory sessionFactory) {
+    Session session = sessionFactory.openSession();
+    session.doWork(connection -> connection.setReadOnly(true));
+    return session;
+  }
+
+  @Test
+  @StaleRead(exactStaleness = "15s")
+  public void testExactStaleness() {
+    // The transaction must be started by the annotated method, as the interceptor uses the
+    // annotations of the first method of this class on the stack.
+    try (SessionFactory sessionFactory = createReadOnlySessionFactory();
+        Session session = openReadOnlySession(sessionFactory)) {
+      Transaction transaction = session.beginTransaction();
+      session.createSelectionQuery("from Venue", Venue.class).getResultList();
+      transaction.commit();
+    }
+
+    assertEquals(1, mockSpanner.countRequestsOfType(BeginTransactionRequest.class));
+    ReadOnly readOnly =
+        mockSpanner
+            .getRequestsOfType(BeginTransactionRequest.class)
+            .get(0)
+            .getOptions()
+            .getReadOnly();
+    assertEquals(15L, readOnly.getExactStaleness().getSeconds());
+  }
+
+  @Test
+  @StaleRead(maxStaleness = "10s")
+  public void testMaxStaleness() {
+    try (SessionFactory sessionFactory = createReadOnlySessionFactory();
+        Session session = openReadOnlySession(sessionFactory)) {
+      Transaction transaction = session.beginTransaction();
+      session.createSelectionQuery("from Venue", Venue.class).getResultList();
+      transaction.commit();
+    }
+
+    assertEquals(0, mockSpanner.countRequestsOfType(BeginTransactionRequest.class));
+    ExecuteSqlRequest request =
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class).stream()
+            .filter(executeSqlRequest -> executeSqlRequest.getSql().equals(SELECT_SQL))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+    assertTrue(request.getTransaction().hasSingleUse());
+    assertEquals(
+        10L, request.getTransaction().getSingleUse().getReadOnly().getMaxStaleness().getSeconds());
+  }
+
+  @Test
+  public void testReadWithMaxStaleness() {
+    try (SessionFactory sessionFactory = createAutoCommitSessionFactory(Venue.class);
+        Session session = sessionFactory.openSession()) {
+      SpannerQueries.readWithMaxStaleness(
+          session,
+          Duration.ofSeconds(15),
+          () -> session.createSelectionQuery("from Venue", Venue.class).getResultList());
+      session.createSelectionQuery("from Venue", Venue.class).getResultList();
+    }
+
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(SELECT_SQL);
+    assertEquals(2, requests.size());
+    assertEquals(
+        15L,
+        requests
+            .get(0)
+            .getTransaction()
+            .getSingleUse()
+            .getReadOnly()
+            .getMaxStaleness()
+            .getSeconds());
+    assertTrue(requests.get(1).getTransaction().getSingleUse().getReadOnly().getStrong());
+  }
+
+  @Test
+  public void testReadWithMaxStalenessMultipleQueries() {
+    try (SessionFactory sessionFactory = createAutoCommitSessionFactory(Venue.class);
+        Session session = sessionFactory.openSession()) {
+      SpannerQueries.readWithMaxStaleness(
+          session,
+          Duration.ofSeconds(15),
+          () -> {
+            session.createSelectionQuery("from Venue", Venue.class).getResultList();
+            return session.createSelectionQuery("from Venue", Venue.class).getResultList();
+          });
+      session.createSelectionQuery("from Venue", Venue.class).getResultList();
+    }
+
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(SELECT_SQL);
+    assertEquals(3, requests.size());
+    for (ExecuteSqlRequest request : requests.subList(0, 2)) {
+      assertTrue(request.getTransaction().hasSingleUse());
+      assertEquals(
+          15L,
+          request.getTransaction().getSingleUse().getReadOnly().getMaxStaleness().getSeconds());
+    }
+    assertTrue(requests.get(2).getTransaction().getSingleUse().getReadOnly().getStrong());
+  }
+
+  @Test
+  public void testReadWithExactStaleness() {
+    try (SessionFactory sessionFactory = createAutoCommitSessionFactory(Venue.class);
+        Session session = sessionFactory.openSession()) {
+      SpannerQueries.readWithExactStaleness(
+          session,
+          Duration.ofSeconds(20),
+          () -> session.createSelectionQuery("from Venue", Venue.class).getResultList());
+    }
+
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(SELECT_SQL);
+    assertEquals(1, requests.size());
+    assertEquals(
+        20L,
+        requests
+            .get(0)
+            .getTransaction()
+            .getSingleUse()
+            .getReadOnly()
+            .getExactStaleness()
+            .getSeconds());
+  }
+
+  @Test
+  public void testReadWithStalenessInTransaction() {
+    try (SessionFactory sessionFactory = createAutoCommitSessionFactory(Venue.class);
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      assertThrows(
+          IllegalStateException.class,
+          () -> SpannerQueries.readWithMaxStaleness(session, Duration.ofSeconds(15), () -> null));
+      transaction.rollback();
+    }
+  }
+
+  @Test
+  public void testFindEntityWithStaleRead() {
+    try (SessionFactory sessionFactory = createAutoCommitSessionFactory(Country.class);
+        Session session = sessionFactory.openSession()) {
+      assertNotNull(session.find(Country.class, 1L));
+    }
+
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(FIND_COUNTRY_SQL);
+    assertEquals(1, requests.size());
+    assertEquals(
+        15L,
+        requests
+            .get(0)
+            .getTransaction()
+            .getSingleUse()
+            .getReadOnly()
+            .getMaxStaleness()
+            .getSeconds());
+  }
+
+  @Test
+  public void testFindEntityInReadWithExactStaleness() {
+    try (SessionFactory sessionFactory = createAutoCommitSessionFactory(Country.class);
+        Session session = sessionFactory.openSession()) {
+      assertNotNull(
+          SpannerQueries.readWithExactStaleness(
+              session, Duration.ofSeconds(20), () -> session.find(Country.class, 1L)));
+    }
+
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(FIND_COUNTRY_SQL);
+    assertEquals(1, requests.size());
+    assertEquals(
+        20L,
+        requests
+            .get(0)
+            .getTransaction()
+            .getSingleUse()
+            .getReadOnly()
+            .getExactStaleness()
+            .getSeconds());
+  }
+
+  @Test
+  public void testFindEntityWithStaleReadRestoresStaleness() {
+    try (SessionFactory sessionFactory =
+            createAutoCommitSessionFactory(Venue.class, Country.class);
+        Session session = sessionFactory.openSession()) {
+      assertNotNull(session.find(Country.class, 1L));
+      // The second find returns the entity from the persistence context.
+      assertNotNull(session.find(Country.class, 1L));
+      session.createSelectionQuery("from Venue", Venue.class).getResultList();
+    }
+
+    assertEquals(1, getExecuteSqlRequests(FIND_COUNTRY_SQL).size());
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(SELECT_SQL);
+    assertEquals(1, requests.size());
+    assertTrue(requests.get(0).getTransaction().getSingleUse().getReadOnly().getStrong());
+  }
+
+  @Test
+  public void testFindEntityWithStaleReadRestoresStalenessWhenLoadFails() {
+    mockSpanner.putStatementResult(
+        StatementResult.exception(
+            Statement.newBuilder(FIND_COUNTRY_SQL).bind("p1").to(2L).build(),
+            Status.INVALID_ARGUMENT.withDescription("test error").asRuntimeException()));
+    try (SessionFactory sessionFactory =
+            createAutoCommitSessionFactory(Venue.class, Country.class);
+        Session session = sessionFactory.openSession()) {
+      assertThrows(JDBCException.class, () -> session.find(Country.class, 2L));
+      session.createSelectionQuery("from Venue", Venue.class).getResultList();
+    }
+
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(SELECT_SQL);
+    assertEquals(1, requests.size());
+    assertTrue(requests.get(0).getTransaction().getSingleUse().getReadOnly().getStrong());
+  }
+
+  @Test
+  public void testFindEntityWithStaleReadInTransaction() {
+    try (SessionFactory sessionFactory = createAutoCommitSessionFactory(Country.class);
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      assertNotNull(session.find(Country.class, 1L));
+      transaction.commit();
+    }
+
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(FIND_COUNTRY_SQL);
+    assertEquals(1, requests.size());
+    assertTrue(requests.get(0).getTransaction().hasBegin());
+    assertTrue(requests.get(0).getTransaction().getBegin().hasReadWrite());
+  }
+
+  @Table(name = "venue")
+  @Entity(name = "Venue")
+  static class Venue {
+
+    @Id private long id;
+
+    protected Venue() {}
+  }
+
+  @StaleRead(maxStaleness = "15s")
+  @Table(name = "country")
+  @Entity(name = "Country")
+  static class Country {
+
+    @Id private long id;
+
+    protected Country() {}
+  }
+}
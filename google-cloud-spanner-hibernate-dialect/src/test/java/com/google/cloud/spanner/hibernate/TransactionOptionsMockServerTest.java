@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.IsolationLevel;
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.ReadLockMode;
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.RpcPriority;
+import com.google.cloud.spanner.hibernate.hints.Hints;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.spanner.v1.CommitRequest;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.RequestOptions.Priority;
+import com.google.spanner.v1.TransactionOptions;
+import com.google.spanner.v1.TransactionOptions.ReadWrite;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.List;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the transaction and request options that are set by the {@link TransactionTagInterceptor},
+ * {@link SpannerSessionSettings} and hints using an in-memory mock Spanner server.
+ */
+public class TransactionOptionsMockServerTest extends AbstractMockSpannerServerTest {
+
+  private static final String SELECT_SQL = "select v1_0.id from venue v1_0";
+
+  @Before
+  public void registerSelect() {
+    mockSpanner.putStatementResult(
+        StatementResult.query(Statement.of(SELECT_SQL), createIdResultSet().build()));
+  }
+
+  private SessionFactory createSessionFactory() {
+    return createTestHibernateConfig(ImmutableList.of(Venue.class))
+        .setInterceptor(
+            new TransactionTagInterceptor(
+                ImmutableSet.of(TransactionOptionsMockServerTest.class.getName()), false))
+        .buildSessionFactory();
+  }
+
+  private static void selectVenues(Session session) {
+    session.createSelectionQuery("from Venue", Venue.class).getResultList();
+  }
+
+  /**
+   * Executes a transaction with the default options. The interceptor uses the annotations of the
+   * first method of this class on the stack, which is this method and not the test method.
+   */
+  private static void runTransactionWithDefaultOptions(Session session) {
+    Transaction transaction = session.beginTransaction();
+    selectVenues(session);
+    transaction.commit();
+  }
+
+  /** Returns the options of the transactions that were started by the select statements. */
+  private static List<TransactionOptions> getTransactionOptions() {
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(SELECT_SQL);
+    assertEquals(2, requests.size());
+    for (ExecuteSqlRequest request : requests) {
+      assertTrue(request.getTransaction().hasBegin());
+    }
+    return ImmutableList.of(
+        requests.get(0).getTransaction().getBegin(), requests.get(1).getTransaction().getBegin());
+  }
+
+  @Test
+  @TransactionIsolation(IsolationLevel.REPEATABLE_READ)
+  public void testTransactionIsolationAnnotation() {
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      selectVenues(session);
+      transaction.commit();
+      runTransactionWithDefaultOptions(session);
+    }
+
+    List<TransactionOptions> options = getTransactionOptions();
+    assertEquals(
+        TransactionOptions.IsolationLevel.REPEATABLE_READ, options.get(0).getIsolationLevel());
+    // The driver returns the default isolation level as SERIALIZABLE, which is therefore also the
+    // level that is restored when the transaction ends.
+    assertEquals(
+        TransactionOptions.IsolationLevel.SERIALIZABLE, options.get(1).getIsolationLevel());
+  }
+
+  @Test
+  @TransactionIsolation(value = IsolationLevel.SERIALIZABLE, readLockMode = ReadLockMode.OPTIMISTIC)
+  public void testTransactionIsolationAnnotationWithReadLockMode() {
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      selectVenues(session);
+      transaction.commit();
+      runTransactionWithDefaultOptions(session);
+    }
+
+    List<TransactionOptions> options = getTransactionOptions();
+    assertEquals(
+        TransactionOptions.IsolationLevel.SERIALIZABLE, options.get(0).getIsolationLevel());
+    assertEquals(
+        ReadWrite.ReadLockMode.OPTIMISTIC, options.get(0).getReadWrite().getReadLockMode());
+    assertEquals(
+        ReadWrite.ReadLockMode.READ_LOCK_MODE_UNSPECIFIED,
+        options.get(1).getReadWrite().getReadLockMode());
+  }
+
+  @Test
+  public void testSessionSettings() {
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      SpannerSessionSettings.apply(
+          session,
+          SpannerSessionSettings.newBuilder()
+              .setIsolationLevel(IsolationLevel.REPEATABLE_READ)
+              .setReadLockMode(ReadLockMode.OPTIMISTIC)
+              .build());
+      selectVenues(session);
+      transaction.commit();
+      runTransactionWithDefaultOptions(session);
+    }
+
+    List<TransactionOptions> options = getTransactionOptions();
+    assertEquals(
+        TransactionOptions.IsolationLevel.REPEATABLE_READ, options.get(0).getIsolationLevel());
+    assertEquals(
+        ReadWrite.ReadLockMode.OPTIMISTIC, options.get(0).getReadWrite().getReadLockMode());
+    // The driver returns the default isolation level as SERIALIZABLE, which is therefore also the
+    // level that is restored when the transaction ends.
+    assertEquals(
+        TransactionOptions.IsolationLevel.SERIALIZABLE, options.get(1).getIsolationLevel());
+    assertEquals(
+        ReadWrite.ReadLockMode.READ_LOCK_MODE_UNSPECIFIED,
+        options.get(1).getReadWrite().getReadLockMode());
+  }
+
+  @Test
+  public void testRpcPriorityHint() {
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      session
+          .createQuery("from Venue", Venue.class)
+          .addQueryHint(Hints.rpcPriority(RpcPriority.LOW).toComment())
+          .getResultList();
+      selectVenues(session);
+    }
+
+    // The hint is removed from the statement, and only applies to the statement with the hint.
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(SELECT_SQL);
+    assertEquals(2, requests.size());
+    assertEquals(Priority.PRIORITY_LOW, requests.get(0).getRequestOptions().getPriority());
+    assertEquals(Priority.PRIORITY_UNSPECIFIED, requests.get(1).getRequestOptions().getPriority());
+  }
+
+  @Test
+  @TransactionPriority(RpcPriority.HIGH)
+  public void testTransactionPriorityAnnotation() {
+    try (SessionFactory sessionFactory = createSessionFactory();
+        Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      selectVenues(session);
+      transaction.commit();
+      runTransactionWithDefaultOptions(session);
+    }
+
+    List<ExecuteSqlRequest> requests = getExecuteSqlRequests(SELECT_SQL);
+    assertEquals(2, requests.size());
+    assertEquals(Priority.PRIORITY_HIGH, requests.get(0).getRequestOptions().getPriority());
+    assertEquals(Priority.PRIORITY_UNSPECIFIED, requests.get(1).getRequestOptions().getPriority());
+    List<CommitRequest> commitRequests = mockSpanner.getRequestsOfType(CommitRequest.class);
+    assertEquals(2, commitRequests.size());
+    assertEquals(Priority.PRIORITY_HIGH, commitRequests.get(0).getRequestOptions().getPriority());
+    assertEquals(
+        Priority.PRIORITY_UNSPECIFIED, commitRequests.get(1).getRequestOptions().getPriority());
+  }
+
+  @Table(name = "venue")
+  @Entity(name = "Venue")
+  static class Venue {
+
+    @Id private long id;
+
+    protected Venue() {}
+  }
+}
@@ -20,6 +20,7 @@ package com.google.cloud.spanner.hibernate.hints;
 
 import static org.junit.Assert.assertEquals;
 
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.RpcPriority;
 import com.google.cloud.spanner.hibernate.hints.Hints.HashJoinBuildSide;
 import com.google.cloud.spanner.hibernate.hints.Hints.HashJoinExecution;
 import com.google.cloud.spanner.hibernate.hints.Hints.IndexStrategy;
@@ -185,6 +186,26 @@ public class HintsTest {
             .replace("insert into singers (id, value) SELECT * from singers"));
   }
 
+  @Test
+  public void testInsertOrUpdate() {
+    assertEquals(
+        "insert or update into singers (id, value) values (@p1, @p2)",
+        Hints.insertOrUpdate().replace("insert into singers (id, value) values (@p1, @p2)"));
+    assertEquals(
+        "@{STATEMENT_TAG=upsert}insert or update into singers (id) values (@p1)",
+        Hints.statementTag("upsert")
+            .combine(Hints.insertOrUpdate())
+            .replace("INSERT INTO singers (id) values (@p1)"));
+  }
+
+  @Test
+  public void testInsertOrIgnore() {
+    assertEquals(
+        "insert or ignore into singers (id, value) values (@p1, @p2)",
+        Hints.insertOrIgnore().replace("insert into singers (id, value) values (@p1, @p2)"));
+    assertEquals("select * from singers", Hints.insertOrIgnore().replace("select * from singers"));
+  }
+
   @Test
   public void testUseAdditionalParallelism() {
     assertEquals(
@@ -259,6 +280,16 @@ public class HintsTest {
             .replace("insert into singers (id, value) SELECT * from singers"));
   }
 
+  @Test
+  public void testRpcPriority() {
+    assertEquals(
+        "@{RPC_PRIORITY=PRIORITY_LOW}select * from singers",
+        Hints.rpcPriority(RpcPriority.LOW).replace("select * from singers"));
+    assertEquals(
+        "@{RPC_PRIORITY=PRIORITY_HIGH}update singers set value=1 where id=1",
+        Hints.rpcPriority(RpcPriority.HIGH).replace("update singers set value=1 where id=1"));
+  }
+
   @Test
   public void testScanMethod() {
     assertEquals(
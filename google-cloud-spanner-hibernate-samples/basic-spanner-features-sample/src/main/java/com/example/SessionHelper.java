@@ -18,6 +18,7 @@
 
 package com.example;
 
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 
@@ -31,7 +32,8 @@ import org.hibernate.SessionFactory;
  * creating new sessions, such as this.
  *
  * <p>You can reset the state of a JDBC connection to its default by executing the SQL statement
- * RESET ALL.
+ * RESET ALL. Settings that are applied with {@link SpannerSessionSettings} are automatically reset
+ * when the session releases its JDBC connection.
  */
 public class SessionHelper {
 
@@ -55,23 +57,21 @@ public class SessionHelper {
   /** Creates a read-only session. */
   public Session createReadOnlySession() {
     Session session = sessionFactory.openSession();
-    session.doWork(
-        conn -> {
-          conn.setReadOnly(true);
-          conn.createStatement().execute("SET READ_ONLY_STALENESS = 'STRONG'");
-        });
+    session.doWork(conn -> conn.setReadOnly(true));
+    SpannerSessionSettings.apply(
+        session, SpannerSessionSettings.newBuilder().setReadOnlyStaleness("STRONG").build());
     return session;
   }
 
   /** Create a session for exact stale reads at {@code stalenessSeconds} in the past. */
   public Session createExactStaleReadSession(int stalenessSeconds) {
     Session session = sessionFactory.openSession();
-    session.doWork(
-        conn -> {
-          conn.setReadOnly(true);
-          conn.createStatement()
-              .execute("SET READ_ONLY_STALENESS = 'EXACT_STALENESS " + stalenessSeconds + "s'");
-        });
+    session.doWork(conn -> conn.setReadOnly(true));
+    SpannerSessionSettings.apply(
+        session,
+        SpannerSessionSettings.newBuilder()
+            .setReadOnlyStaleness("EXACT_STALENESS " + stalenessSeconds + "s")
+            .build());
     return session;
   }
 }
@@ -18,10 +18,10 @@
 
 package com.google.cloud.spanner.sample.service;
 
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.sql.ResultSet;
-import java.sql.Statement;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.function.Supplier;
@@ -60,29 +60,15 @@ public class StaleReadService {
         "read_timestamp " + timestamp.format(DateTimeFormatter.ISO_DATE_TIME), transaction);
   }
 
-  /** Executes a read-only transaction with the given staleness. */
+  /**
+   * Executes a read-only transaction with the given staleness. The staleness is only applied to
+   * this transaction, and is automatically reset by the JDBC driver when the transaction ends.
+   */
   @Transactional(readOnly = true)
   public <T> T executeReadOnlyTransactionWithStaleness(String staleness, Supplier<T> transaction) {
-    return entityManager
-        .unwrap(Session.class)
-        .doReturningWork(
-            connection -> {
-              try (Statement statement = connection.createStatement()) {
-                try {
-                  statement.execute(String.format("set read_only_staleness='%s'", staleness));
-                  return transaction.get();
-                } catch (Throwable t) {
-                  statement.execute("rollback");
-                  throw t;
-                } finally {
-                  // NOTE: Calling 'commit' if there is no active transaction is a no-op. That means
-                  // that if the transaction was rolled back in case of an exception, this commit
-                  // will be a no-op.
-                  statement.execute("commit");
-                  // Reset the read_only_staleness of the connection.
-                  connection.createStatement().execute("set read_only_staleness='strong'");
-                }
-              }
-            });
+    SpannerSessionSettings.apply(
+        entityManager.unwrap(Session.class),
+        SpannerSessionSettings.newBuilder().setReadOnlyStaleness(staleness).build());
+    return transaction.get();
   }
 }
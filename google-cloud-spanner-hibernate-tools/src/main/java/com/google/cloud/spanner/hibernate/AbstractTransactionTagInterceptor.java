@@ -18,22 +18,36 @@
 
 package com.google.cloud.spanner.hibernate;
 
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.ReadLockMode;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 import javax.annotation.Nullable;
 import org.hibernate.HibernateException;
 import org.hibernate.Interceptor;
 import org.hibernate.Session;
-import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
-import org.hibernate.dialect.Dialect;
 import org.hibernate.engine.transaction.internal.TransactionImpl;
-import org.hibernate.internal.SessionFactoryImpl;
 
-/** Base class for interceptors that add transaction tags. */
+/**
+ * Base class for interceptors that add transaction tags and apply other transaction annotations,
+ * like {@link AutoBatchDml}, {@link PartitionedDml}, {@link TransactionIsolation}, {@link
+ * TransactionPriority}, {@link CommitOptions}, {@link StaleRead} and {@link DirectedRead}.
+ */
 public abstract class AbstractTransactionTagInterceptor implements Interceptor {
   private final Field sessionField;
 
-  private Boolean dialectIsPostgres;
+  /** The {@link AutoBatchDml} annotations of the active transactions. */
+  private final Map<Transaction, Boolean> autoBatchDmlOverrides =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  /** The directed read setting of the session factory. Only valid if the setting is known. */
+  private String directedReadSetting;
+
+  private volatile boolean directedReadSettingKnown;
 
   protected AbstractTransactionTagInterceptor() {
     try {
@@ -47,48 +61,145 @@ public abstract class AbstractTransactionTagInterceptor implements Interceptor {
   @Override
   public void afterTransactionBegin(Transaction tx) {
     String tag = getTag();
+    Method method = getTransactionMethod();
+    AutoBatchDml autoBatchDml = method == null ? null : method.getAnnotation(AutoBatchDml.class);
+    boolean partitionedDml = method != null && method.isAnnotationPresent(PartitionedDml.class);
+    // Partitioned DML is not executed in the read/write transaction, so a transaction tag and other
+    // transaction settings would not be used.
+    SpannerSessionSettings settings =
+        partitionedDml ? null : createTransactionSettings(tag, method);
+    StaleRead staleRead = method == null ? null : method.getAnnotation(StaleRead.class);
+    DirectedRead directedRead = method == null ? null : method.getAnnotation(DirectedRead.class);
+    boolean noAnnotations =
+        autoBatchDml == null
+            && !partitionedDml
+            && settings == null
+            && staleRead == null
+            && directedRead == null;
+    if (noAnnotations && directedReadSettingKnown && directedReadSetting == null) {
+      return;
+    }
+    if (autoBatchDml != null) {
+      autoBatchDmlOverrides.put(tx, autoBatchDml.value());
+    }
+    Session session = getSession(tx);
+    if (session == null) {
+      return;
+    }
+    String directedReadOptions =
+        directedRead == null ? getDirectedReadSetting(session) : directedRead.value();
+    if (noAnnotations && directedReadOptions == null) {
+      return;
+    }
+    if (partitionedDml) {
+      SpannerSessionSettings.applyPartitionedDml(session);
+      return;
+    }
+    boolean readOnly =
+        session.doReturningWork(
+            connection -> connection.isReadOnly() && !connection.getAutoCommit());
+    if (readOnly && (staleRead != null || directedReadOptions != null)) {
+      applyReadOnlySettings(session, staleRead, directedReadOptions);
+    } else if (!readOnly && settings != null) {
+      SpannerSessionSettings.apply(session, settings);
+    }
+  }
+
+  /** Applies the staleness and directed read options to the read-only transaction of a session. */
+  private void applyReadOnlySettings(
+      Session session, @Nullable StaleRead staleRead, @Nullable String directedReadOptions) {
+    SpannerSessionSettings.Builder builder = SpannerSessionSettings.newBuilder();
+    if (staleRead != null) {
+      builder.setReadOnlyStaleness(SpannerSessionSettings.toReadOnlyStaleness(staleRead));
+    }
+    if (directedReadOptions != null) {
+      builder.setDirectedRead(directedReadOptions);
+    }
+    SpannerSessionSettings settings = builder.build();
+    if (staleRead == null || staleRead.maxStaleness().isEmpty()) {
+      SpannerSessionSettings.apply(session, settings);
+    } else {
+      // Spanner only supports a max staleness for single-use read-only transactions.
+      SpannerSessionSettings.applyInAutoCommit(session, settings);
+    }
+  }
+
+  /**
+   * Creates the settings for a read/write transaction from the given tag and the annotations on the
+   * given method, or returns null if there are no settings to apply.
+   */
+  private static @Nullable SpannerSessionSettings createTransactionSettings(
+      @Nullable String tag, @Nullable Method method) {
+    TransactionIsolation isolation =
+        method == null ? null : method.getAnnotation(TransactionIsolation.class);
+    TransactionPriority priority =
+        method == null ? null : method.getAnnotation(TransactionPriority.class);
+    CommitOptions commitOptions = method == null ? null : method.getAnnotation(CommitOptions.class);
+    if (tag == null && isolation == null && priority == null && commitOptions == null) {
+      return null;
+    }
+    SpannerSessionSettings.Builder builder = SpannerSessionSettings.newBuilder();
     if (tag != null) {
-      Session session = getSession(tx);
-      if (session != null) {
-        session.doWork(
-            connection -> {
-              if (!(connection.isReadOnly() || connection.getAutoCommit())) {
-                connection
-                    .createStatement()
-                    .execute(generateSetTransactionTagStatement(session, tag));
-              }
-            });
+      builder.setTransactionTag(tag);
+    }
+    if (isolation != null) {
+      builder.setIsolationLevel(isolation.value());
+      if (isolation.readLockMode() != ReadLockMode.READ_LOCK_MODE_UNSPECIFIED) {
+        builder.setReadLockMode(isolation.readLockMode());
       }
     }
+    if (priority != null) {
+      builder.setRpcPriority(priority.value());
+    }
+    if (commitOptions != null) {
+      builder.setMaxCommitDelay(Duration.ofMillis(commitOptions.maxCommitDelayMillis()));
+    }
+    return builder.build();
   }
 
-  private String generateSetTransactionTagStatement(Session session, String tag) {
-    if (dialectIsPostgres(session)) {
-      return "set spanner.transaction_tag='" + tag + "'";
-    }
-    return "set transaction_tag='" + tag + "'";
+  @Override
+  public void afterTransactionCompletion(Transaction tx) {
+    autoBatchDmlOverrides.remove(tx);
+  }
+
+  /**
+   * Returns the value of the {@link AutoBatchDml} annotation of the method that started the given
+   * transaction, or null if the method is not annotated. The annotation overrides the {@link
+   * SpannerSettings#AUTO_BATCH_DML} setting for the transaction.
+   */
+  @Nullable
+  Boolean getAutoBatchDml(Transaction tx) {
+    return autoBatchDmlOverrides.get(tx);
   }
 
-  private boolean dialectIsPostgres(Session session) {
-    if (this.dialectIsPostgres == null) {
+  /** Returns the directed read setting in the configuration of the session factory. */
+  private @Nullable String getDirectedReadSetting(Session session) {
+    if (!this.directedReadSettingKnown) {
       synchronized (this) {
-        if (this.dialectIsPostgres == null) {
-          SessionFactory factory = session.getSessionFactory();
-          if (factory instanceof SessionFactoryImpl) {
-            Dialect dialect = ((SessionFactoryImpl) factory).getJdbcServices().getDialect();
-            this.dialectIsPostgres = dialect.openQuote() == '"';
-          } else {
-            this.dialectIsPostgres = false;
-          }
+        if (!this.directedReadSettingKnown) {
+          Object value =
+              session.getSessionFactory().getProperties().get(SpannerSettings.DIRECTED_READ);
+          this.directedReadSetting = value == null ? null : value.toString();
+          this.directedReadSettingKnown = true;
         }
       }
     }
-    return this.dialectIsPostgres;
+    return this.directedReadSetting;
   }
 
   /** Returns the tag that should be added to the transaction that is being started. */
   protected abstract String getTag();
 
+  /**
+   * Returns the application method that started the transaction, or null if it is not known.
+   * Annotations like {@link AutoBatchDml}, {@link PartitionedDml}, {@link TransactionIsolation} and
+   * {@link TransactionPriority} on this method are applied to the transaction. The default
+   * implementation returns null.
+   */
+  protected @Nullable Method getTransactionMethod() {
+    return null;
+  }
+
   /**
    * Gets the session from the transaction. Unfortunately, there is no public API to do so, so we
    * have to use reflection.
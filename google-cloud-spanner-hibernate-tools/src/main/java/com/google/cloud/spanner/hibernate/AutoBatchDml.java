@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for enabling or disabling automatic DML batching for all flushes in a Hibernate
+ * transaction. This overrides the {@link SpannerSettings#AUTO_BATCH_DML} setting for the
+ * transaction.
+ *
+ * <p>Usage:
+ *
+ * <ol>
+ *   <li>Add the {@link TransactionTagInterceptor} to your Hibernate configuration.
+ *   <li>Add the {@link AutoBatchDml} annotation to a method that is also tagged with {@link
+ *       jakarta.transaction.Transactional}.
+ * </ol>
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * @Service
+ * public class ConcertService {
+ *   @Transactional
+ *   @AutoBatchDml
+ *   public List<Concert> generateRandomConcerts(List<Singer> singers, List<Venue> venues) {
+ *     // All entities that are persisted in this transaction are inserted using a single
+ *     // ExecuteBatchDml request.
+ *   }
+ * }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AutoBatchDml {
+
+  /** Whether automatic DML batching should be used for the transaction. */
+  boolean value() default true;
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for setting the commit options of a Hibernate read/write transaction. The options are
+ * only applied to the annotated transaction, so throughput-oriented transactions can use a commit
+ * delay without affecting the latency of other transactions.
+ *
+ * <p>Usage:
+ *
+ * <ol>
+ *   <li>Add the {@link TransactionTagInterceptor} to your Hibernate configuration.
+ *   <li>Add the {@link CommitOptions} annotation to a method that is also tagged with {@link
+ *       jakarta.transaction.Transactional}.
+ * </ol>
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * @Service
+ * public class ImportService {
+ *   @Transactional
+ *   @CommitOptions(maxCommitDelayMillis = 50)
+ *   public void importRecords(List<Record> records) {
+ *     // Spanner may delay the commit of this transaction by up to 50 milliseconds to batch it
+ *     // with other commits.
+ *   }
+ * }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CommitOptions {
+
+  /**
+   * The maximum number of milliseconds that Spanner may delay the commit of the transaction to
+   * batch it with other commits. A larger delay can increase the write throughput of Spanner, at
+   * the cost of a higher commit latency. Spanner accepts values between 0 and 500 milliseconds.
+   */
+  long maxCommitDelayMillis();
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for routing the reads of a Hibernate read-only transaction to specific Spanner
+ * replicas. Directed reads can for example send analytical queries to read-only replicas, so they
+ * do not compete with latency-sensitive traffic on the read/write replicas.
+ *
+ * <p>The value is the JSON representation of the Spanner DirectedReadOptions message. It either
+ * includes or excludes replicas by location and/or type. The options are only applied to read-only
+ * transactions, and the JDBC connection is reset automatically when the transaction ends. Use
+ * {@link SpannerSettings#DIRECTED_READ} to set default options for all read-only transactions.
+ *
+ * <p>Usage:
+ *
+ * <ol>
+ *   <li>Add the {@link TransactionTagInterceptor} to your Hibernate configuration.
+ *   <li>Add the {@link DirectedRead} annotation to a method that is also tagged with
+ *       {@code @Transactional(readOnly = true)}.
+ * </ol>
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * @Service
+ * public class ReportService {
+ *   @Transactional(readOnly = true)
+ *   @DirectedRead("{\"includeReplicas\":{\"replicaSelections\":[{\"type\":\"READ_ONLY\"}]}}")
+ *   public Report generateReport() {
+ *     // The queries in this method are executed on read-only replicas.
+ *   }
+ * }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface DirectedRead {
+
+  /** The JSON representation of the DirectedReadOptions for the transaction. */
+  String value();
+}
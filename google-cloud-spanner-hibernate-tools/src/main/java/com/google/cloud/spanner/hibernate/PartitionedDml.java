@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for executing the bulk update and delete statements of a Hibernate transaction as
+ * Partitioned DML. Partitioned DML is executed outside a read/write transaction, which means that
+ * the statements are not limited by the mutation limit of a transaction and do not lock the entire
+ * range of rows that they modify.
+ *
+ * <p>Only use this annotation for methods that execute bulk statements that are safe to execute
+ * non-atomically and that can be retried, like deleting all rows that are older than a given date.
+ * Partitioned DML statements can be applied partially if they fail, and are not rolled back if the
+ * transaction is rolled back. The method should not modify any entities, as the changes that are
+ * flushed by Hibernate will also be executed as Partitioned DML. The update count that is returned
+ * by a bulk statement is a lower bound of the number of rows that were modified.
+ *
+ * <p>Usage:
+ *
+ * <ol>
+ *   <li>Add the {@link TransactionTagInterceptor} to your Hibernate configuration.
+ *   <li>Add the {@link PartitionedDml} annotation to a method that is also tagged with {@link
+ *       jakarta.transaction.Transactional}. The method can for example call a Spring Data
+ *       repository method that is annotated with <code>@Modifying</code>.
+ * </ol>
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * @Service
+ * public class EventService {
+ *   @Transactional
+ *   @PartitionedDml
+ *   public int deleteOldEvents(Instant cutoff) {
+ *     // Executes 'delete from Event where createdAt < :cutoff' as Partitioned DML.
+ *     return eventRepository.deleteOlderThan(cutoff);
+ *   }
+ * }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PartitionedDml {}
@@ -0,0 +1,587 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.TransactionCompletionCallbacks.BeforeCompletionCallback;
+import org.hibernate.internal.SessionFactoryImpl;
+
+/**
+ * A set of client-side Spanner connection variables that can be applied to a Hibernate {@link
+ * Session} in one step.
+ *
+ * <p>Settings that are applied while the session has an active transaction are reset to their
+ * previous values when the transaction ends. Settings that are applied while the session does not
+ * have an active transaction are reset when Hibernate releases the JDBC connection of the session.
+ * The Spanner JDBC driver only supports <code>set local</code> for a few variables, so the previous
+ * values are read and restored by the settings themselves.
+ *
+ * <p>All settings are handled by the Spanner JDBC driver, and applying them does not cause any
+ * round-trips to Spanner.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * @Transactional
+ * public void generateRandomData() {
+ *   SpannerSessionSettings.apply(
+ *       entityManager.unwrap(Session.class),
+ *       SpannerSessionSettings.newBuilder()
+ *           .setAutoBatchDml(true)
+ *           .setMaxCommitDelay(Duration.ofMillis(50L))
+ *           .build());
+ *   // Code that is executed in the transaction...
+ * }
+ * }</pre>
+ */
+public final class SpannerSessionSettings {
+
+  /** Possible values for the rpc_priority connection variable. */
+  public enum RpcPriority {
+    LOW,
+    MEDIUM,
+    HIGH,
+  }
+
+  /** Possible values for the autocommit_dml_mode connection variable. */
+  public enum AutocommitDmlMode {
+    /** DML statements in auto-commit mode are executed in a single read/write transaction. */
+    TRANSACTIONAL,
+    /**
+     * DML statements in auto-commit mode are executed as Partitioned DML. The statements are not
+     * executed atomically, and return a lower bound of the number of rows that were modified.
+     */
+    PARTITIONED_NON_ATOMIC,
+  }
+
+  /** Possible values for the default_isolation_level connection variable. */
+  public enum IsolationLevel {
+    /** Use the default isolation level of Spanner. */
+    ISOLATION_LEVEL_UNSPECIFIED,
+    /** All transactions appear as if they were executed one after the other. */
+    SERIALIZABLE,
+    /**
+     * All reads in a transaction see a consistent snapshot of the database. Read/write conflicts
+     * are not detected, and reads do not take locks.
+     */
+    REPEATABLE_READ,
+  }
+
+  /** Possible values for the read_lock_mode connection variable. */
+  public enum ReadLockMode {
+    /** Use the default read lock mode of Spanner. */
+    READ_LOCK_MODE_UNSPECIFIED,
+    /** Reads take locks when they are executed. */
+    PESSIMISTIC,
+    /**
+     * Reads do not take locks. Instead, the reads are validated when the transaction is committed,
+     * and the transaction is aborted if any of the rows that were read have changed.
+     */
+    OPTIMISTIC,
+  }
+
+  /**
+   * The name of the variable for the isolation level. The Spanner JDBC driver does not support a
+   * <code>set</code> statement for this variable, so it is set with {@link
+   * Connection#setTransactionIsolation(int)}.
+   */
+  private static final String ISOLATION_LEVEL = "default_isolation_level";
+
+  private static final String RPC_PRIORITY = "rpc_priority";
+
+  /** A single connection variable with the SQL literal that should be assigned to it. */
+  private static final class Variable {
+    private final String name;
+
+    private final String literal;
+
+    /** Indicates whether the value of the variable is a string that must be quoted. */
+    private final boolean quoted;
+
+    /**
+     * Indicates whether the driver automatically clears the variable at the end of each
+     * transaction. These variables are set with a plain <code>set</code> statement.
+     */
+    private final boolean transactionScoped;
+
+    private Variable(String name, String literal, boolean quoted, boolean transactionScoped) {
+      this.name = name;
+      this.literal = literal;
+      this.quoted = quoted;
+      this.transactionScoped = transactionScoped;
+    }
+
+    private String qualifiedName(boolean postgres) {
+      return postgres ? "spanner." + name : name;
+    }
+  }
+
+  /** Builder for {@link SpannerSessionSettings}. */
+  public static final class Builder {
+    private final Map<String, Variable> variables = new LinkedHashMap<>();
+
+    private Builder() {}
+
+    private Builder set(String name, Object value, boolean quoted, boolean transactionScoped) {
+      String literal;
+      if (value == null) {
+        literal = "null";
+      } else if (quoted) {
+        literal = quote(String.valueOf(value));
+      } else {
+        literal = String.valueOf(value);
+      }
+      variables.put(name, new Variable(name, literal, quoted, transactionScoped));
+      return this;
+    }
+
+    /**
+     * Enables or disables automatic batching of DML statements in the Spanner JDBC driver. DML
+     * statements are buffered until the transaction executes a query or commits.
+     */
+    public Builder setAutoBatchDml(boolean autoBatchDml) {
+      return set("auto_batch_dml", autoBatchDml, false, false);
+    }
+
+    /**
+     * Enables or disables verification of the update counts of automatically batched DML
+     * statements. The driver returns an update count of 1 for each buffered DML statement, and
+     * verifies that Spanner returned the same update counts when the batch is executed.
+     */
+    public Builder setAutoBatchDmlUpdateCountVerification(boolean verification) {
+      return set("auto_batch_dml_update_count_verification", verification, false, false);
+    }
+
+    /**
+     * Sets the mode that is used for DML statements that are executed while the connection is in
+     * auto-commit mode. This setting has no effect on statements in a transaction.
+     */
+    public Builder setAutocommitDmlMode(AutocommitDmlMode autocommitDmlMode) {
+      return set(
+          "autocommit_dml_mode", Preconditions.checkNotNull(autocommitDmlMode).name(), true, false);
+    }
+
+    /**
+     * Enables or disables executing all queries as partitioned queries. The partitions of a query
+     * are executed in parallel by the Spanner JDBC driver, and the results are returned as one
+     * result set. Queries that cannot be partitioned, and queries in a read/write transaction, fail
+     * when this mode is enabled.
+     */
+    public Builder setAutoPartitionMode(boolean autoPartitionMode) {
+      return set("auto_partition_mode", autoPartitionMode, false, false);
+    }
+
+    /**
+     * Enables or disables Data Boost for partitioned queries. Data Boost executes the partitions on
+     * independent compute resources that do not affect the workload of the Spanner instance.
+     */
+    public Builder setDataBoostEnabled(boolean dataBoostEnabled) {
+      return set("data_boost_enabled", dataBoostEnabled, false, false);
+    }
+
+    /**
+     * Sets the maximum number of partitions of a partitioned query that the Spanner JDBC driver
+     * executes in parallel. The value 0 means that the number of available processors is used.
+     */
+    public Builder setMaxPartitionedParallelism(int maxPartitionedParallelism) {
+      Preconditions.checkArgument(
+          maxPartitionedParallelism >= 0, "maxPartitionedParallelism must be >= 0");
+      return set("max_partitioned_parallelism", maxPartitionedParallelism, false, false);
+    }
+
+    /**
+     * Sets the isolation level for read/write transactions. The isolation level of a transaction is
+     * fixed when the transaction executes its first statement, so this setting must be applied
+     * before that. The isolation level is set with {@link Connection#setTransactionIsolation(int)},
+     * which means that {@link IsolationLevel#ISOLATION_LEVEL_UNSPECIFIED} selects {@link
+     * IsolationLevel#SERIALIZABLE}, the default isolation level of Spanner.
+     */
+    public Builder setIsolationLevel(IsolationLevel isolationLevel) {
+      Preconditions.checkNotNull(isolationLevel);
+      return set(ISOLATION_LEVEL, isolationLevel.name(), false, false);
+    }
+
+    /**
+     * Sets the read lock mode for read/write transactions. Like the isolation level, the read lock
+     * mode must be set before the transaction executes its first statement.
+     */
+    public Builder setReadLockMode(ReadLockMode readLockMode) {
+      return set("read_lock_mode", Preconditions.checkNotNull(readLockMode).name(), true, false);
+    }
+
+    /**
+     * Sets the directed read options that are used for read-only transactions and auto-commit
+     * queries. Directed reads route reads to replicas of a given type or in a given location, for
+     * example to keep analytical queries away from the read/write replicas. The value is the JSON
+     * representation of the Spanner DirectedReadOptions message, for example <code>
+     * {"includeReplicas":{"replicaSelections":[{"type":"READ_ONLY"}]}}</code>. A <code>null</code>
+     * or empty value removes the directed read options.
+     */
+    public Builder setDirectedRead(String directedRead) {
+      return set("directed_read", directedRead == null ? "" : directedRead, true, false);
+    }
+
+    /**
+     * Sets the maximum amount of time that Spanner may delay a commit to batch it with other
+     * commits. A <code>null</code> value removes the delay.
+     */
+    public Builder setMaxCommitDelay(Duration maxCommitDelay) {
+      return set(
+          "max_commit_delay",
+          maxCommitDelay == null ? null : maxCommitDelay.toMillis() + "ms",
+          true,
+          false);
+    }
+
+    /**
+     * Sets the staleness that is used for read-only transactions and auto-commit queries, e.g.
+     * <code>STRONG</code>, <code>MAX_STALENESS 10s</code> or <code>EXACT_STALENESS 15s</code>.
+     */
+    public Builder setReadOnlyStaleness(String readOnlyStaleness) {
+      return set("read_only_staleness", Preconditions.checkNotNull(readOnlyStaleness), true, false);
+    }
+
+    /**
+     * Sets the timeout for each statement that is executed on the connection. The timeout is
+     * applied by the Spanner JDBC driver, and a statement that exceeds it fails with a {@link
+     * java.sql.SQLTimeoutException}. Use this for timeouts with sub-second precision. Hibernate
+     * applies the query timeout of a single query in whole seconds. A <code>null</code> value
+     * removes the timeout.
+     */
+    public Builder setStatementTimeout(Duration statementTimeout) {
+      return set(
+          "statement_timeout",
+          statementTimeout == null ? null : statementTimeout.toMillis() + "ms",
+          true,
+          false);
+    }
+
+    /** Sets the priority that is used for all requests to Spanner. */
+    public Builder setRpcPriority(RpcPriority rpcPriority) {
+      return set(RPC_PRIORITY, Preconditions.checkNotNull(rpcPriority).name(), true, false);
+    }
+
+    /**
+     * Sets the tag for the current read/write transaction. The Spanner JDBC driver clears the tag
+     * automatically when the transaction ends.
+     */
+    public Builder setTransactionTag(String transactionTag) {
+      return set("transaction_tag", Preconditions.checkNotNull(transactionTag), true, true);
+    }
+
+    /** Creates the {@link SpannerSessionSettings} from this builder. */
+    public SpannerSessionSettings build() {
+      return new SpannerSessionSettings(ImmutableList.copyOf(variables.values()));
+    }
+  }
+
+  /**
+   * Resets the variables that were changed on a connection to their previous values when the
+   * transaction that changed them ends, or when Hibernate releases the connection.
+   */
+  private static final class ResetOnRelease implements SessionEventListener {
+    private final Connection connection;
+
+    private final SpannerSessionSettings previous;
+
+    private final boolean postgres;
+
+    private final boolean resetAtTransactionEnd;
+
+    private boolean done;
+
+    private ResetOnRelease(
+        Connection connection,
+        SpannerSessionSettings previous,
+        boolean postgres,
+        boolean resetAtTransactionEnd) {
+      this.connection = connection;
+      this.previous = previous;
+      this.postgres = postgres;
+      this.resetAtTransactionEnd = resetAtTransactionEnd;
+    }
+
+    @Override
+    public void transactionCompletion(boolean successful) {
+      // Hibernate has already released the connection at this point, unless the session holds on
+      // to its connection after a transaction.
+      if (resetAtTransactionEnd) {
+        reset();
+      }
+    }
+
+    @Override
+    public void jdbcConnectionReleaseStart() {
+      reset();
+    }
+
+    private void reset() {
+      if (done) {
+        return;
+      }
+      done = true;
+      try {
+        // Some variables can only be set in auto-commit mode. Connections that were switched to
+        // auto-commit during a transaction are back in transactional mode at this point.
+        boolean autoCommit = connection.getAutoCommit();
+        if (!autoCommit) {
+          connection.setAutoCommit(true);
+        }
+        try {
+          previous.applyTo(connection, postgres);
+        } finally {
+          if (!autoCommit) {
+            connection.setAutoCommit(false);
+          }
+        }
+      } catch (SQLException sqlException) {
+        throw new HibernateException("Failed to reset Spanner connection variables", sqlException);
+      }
+    }
+  }
+
+  private final ImmutableList<Variable> variables;
+
+  private SpannerSessionSettings(ImmutableList<Variable> variables) {
+    this.variables = variables;
+  }
+
+  /** Creates a new builder for {@link SpannerSessionSettings}. */
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * Applies the given settings to the JDBC connection of the given session. The settings are
+   * automatically reset to their previous values when the current transaction ends, or when the
+   * session releases its JDBC connection if the session does not have an active transaction.
+   *
+   * <p>Note that Hibernate by default releases the JDBC connection of a session without an active
+   * transaction after each operation. Settings that are applied outside a transaction therefore
+   * normally only apply to the next query of the session. Start a transaction, or use {@link
+   * Session#doWork} to execute multiple statements on the same connection, if the settings should
+   * apply to more than one statement.
+   *
+   * @param session the session whose connection should be modified
+   * @param settings the settings to apply
+   */
+  public static void apply(Session session, SpannerSessionSettings settings) {
+    Preconditions.checkNotNull(session);
+    Preconditions.checkNotNull(settings);
+    if (settings.variables.isEmpty()) {
+      return;
+    }
+    boolean postgres = usesPostgresDialect(session.getSessionFactory());
+    boolean inTransaction = session.isJoinedToTransaction();
+    session.doWork(
+        connection -> {
+          SpannerSessionSettings previous = settings.applyAndRecord(connection, postgres);
+          if (!previous.variables.isEmpty()) {
+            session.addEventListeners(
+                new ResetOnRelease(connection, previous, postgres, inTransaction));
+          }
+        });
+  }
+
+  /**
+   * Switches the JDBC connection of a session that has just started a transaction to auto-commit
+   * mode and executes all DML statements on the connection as Partitioned DML. Hibernate still
+   * considers the transaction to be active, which is required for executing bulk statements. The
+   * DML mode is reset when Hibernate releases the connection.
+   */
+  static void applyPartitionedDml(Session session) {
+    applyInAutoCommit(
+        session,
+        newBuilder().setAutocommitDmlMode(AutocommitDmlMode.PARTITIONED_NON_ATOMIC).build());
+  }
+
+  /**
+   * Switches the JDBC connection of a session that has just started a transaction to auto-commit
+   * mode and applies the given settings. Each statement is then executed in its own single-use
+   * transaction on Spanner, while Hibernate still considers the transaction to be active. The
+   * settings are reset when Hibernate releases the connection.
+   *
+   * <p>The Spanner JDBC driver does not accept a commit or rollback in auto-commit mode. The
+   * connection is therefore switched back to a transaction before Hibernate commits, which is a
+   * no-op on Spanner as the transaction does not contain any statements. Callers that roll back the
+   * transaction must call {@link #endAutoCommit(Session)} first.
+   */
+  static void applyInAutoCommit(Session session, SpannerSessionSettings settings) {
+    session.doWork(connection -> connection.setAutoCommit(true));
+    apply(session, settings);
+    session
+        .unwrap(SessionImplementor.class)
+        .getActionQueue()
+        .registerCallback((BeforeCompletionCallback) completingSession -> endAutoCommit(session));
+  }
+
+  /**
+   * Switches the JDBC connection of a session that was switched to auto-commit mode by {@link
+   * #applyInAutoCommit(Session, SpannerSessionSettings)} back to an empty transaction, so Hibernate
+   * can commit or roll back its transaction.
+   */
+  static void endAutoCommit(Session session) {
+    session.doWork(
+        connection -> {
+          if (connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+          }
+        });
+  }
+
+  /**
+   * Applies these settings to the JDBC connection of the given session without resetting them
+   * afterwards. This is used to revert settings that were applied earlier.
+   */
+  void applyWithoutReset(Session session) {
+    boolean postgres = usesPostgresDialect(session.getSessionFactory());
+    session.doWork(connection -> applyTo(connection, postgres));
+  }
+
+  /** Applies these settings to the given connection with plain <code>set</code> statements. */
+  void applyTo(Connection connection, boolean postgres) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      for (Variable variable : variables) {
+        set(connection, statement, variable, postgres);
+      }
+    }
+  }
+
+  /**
+   * Applies these settings to the given connection and returns the settings that restore the
+   * previous values. Variables that the driver clears at the end of each transaction are not
+   * restored.
+   */
+  private SpannerSessionSettings applyAndRecord(Connection connection, boolean postgres)
+      throws SQLException {
+    ImmutableList.Builder<Variable> previous = ImmutableList.builder();
+    try (Statement statement = connection.createStatement()) {
+      for (Variable variable : variables) {
+        if (!variable.transactionScoped) {
+          previous.add(
+              new Variable(
+                  variable.name,
+                  toLiteral(currentValue(connection, statement, variable, postgres), variable),
+                  variable.quoted,
+                  false));
+        }
+        set(connection, statement, variable, postgres);
+      }
+    }
+    return new SpannerSessionSettings(previous.build());
+  }
+
+  private static void set(
+      Connection connection, Statement statement, Variable variable, boolean postgres)
+      throws SQLException {
+    if (variable.name.equals(ISOLATION_LEVEL)) {
+      connection.setTransactionIsolation(
+          IsolationLevel.valueOf(variable.literal) == IsolationLevel.REPEATABLE_READ
+              ? Connection.TRANSACTION_REPEATABLE_READ
+              : Connection.TRANSACTION_SERIALIZABLE);
+    } else {
+      statement.execute("set " + variable.qualifiedName(postgres) + "=" + variable.literal);
+    }
+  }
+
+  private static String currentValue(
+      Connection connection, Statement statement, Variable variable, boolean postgres)
+      throws SQLException {
+    if (variable.name.equals(ISOLATION_LEVEL)) {
+      return connection.getTransactionIsolation() == Connection.TRANSACTION_REPEATABLE_READ
+          ? IsolationLevel.REPEATABLE_READ.name()
+          : IsolationLevel.SERIALIZABLE.name();
+    }
+    String value = currentValue(statement, variable.qualifiedName(postgres), postgres);
+    if (variable.name.equals(RPC_PRIORITY) && value != null) {
+      // The driver shows the priority as PRIORITY_<value>, but only accepts <value> or NULL in a
+      // set statement.
+      value = value.replaceFirst("^PRIORITY_", "");
+      return value.equals("UNSPECIFIED") ? "NULL" : value;
+    }
+    return value;
+  }
+
+  private static String currentValue(Statement statement, String name, boolean postgres)
+      throws SQLException {
+    try (ResultSet resultSet =
+        statement.executeQuery(postgres ? "show " + name : "show variable " + name)) {
+      return resultSet.next() ? resultSet.getString(1) : null;
+    }
+  }
+
+  private static String toLiteral(String value, Variable variable) {
+    if (value == null) {
+      return "null";
+    }
+    return variable.quoted ? quote(value) : value;
+  }
+
+  /**
+   * Returns the given value as a quoted string literal for a <code>set</code> statement. The
+   * Spanner JDBC driver does not support escaped quotes in the value of a connection variable, so
+   * values that contain a single quote are rejected.
+   */
+  private static String quote(String value) {
+    Preconditions.checkArgument(
+        value.indexOf('\'') == -1, "Connection variable values may not contain quotes: %s", value);
+    return "'" + value + "'";
+  }
+
+  /**
+   * Returns the value for the read_only_staleness connection variable that corresponds with the
+   * given {@link StaleRead} annotation.
+   */
+  static String toReadOnlyStaleness(StaleRead staleRead) {
+    boolean exact = !staleRead.exactStaleness().isEmpty();
+    if (exact == !staleRead.maxStaleness().isEmpty()) {
+      throw new HibernateException(
+          "Exactly one of exactStaleness and maxStaleness must be set for @StaleRead");
+    }
+    return exact
+        ? "EXACT_STALENESS " + staleRead.exactStaleness()
+        : "MAX_STALENESS " + staleRead.maxStaleness();
+  }
+
+  /**
+   * Returns true if the given session factory uses a PostgreSQL dialect, which means that all
+   * Spanner connection variables must be prefixed with 'spanner.'.
+   */
+  static boolean usesPostgresDialect(SessionFactory factory) {
+    if (factory instanceof SessionFactoryImpl) {
+      Dialect dialect = ((SessionFactoryImpl) factory).getJdbcServices().getDialect();
+      return dialect.openQuote() == '"';
+    }
+    return false;
+  }
+}
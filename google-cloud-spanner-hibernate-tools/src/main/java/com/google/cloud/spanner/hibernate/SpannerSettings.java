@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import java.util.Map;
+
+/**
+ * Names of the Spanner-specific Hibernate settings. These settings are added to the Hibernate
+ * configuration, and are read once when the session factory is built. They apply to all sessions of
+ * the session factory.
+ */
+public final class SpannerSettings {
+
+  /**
+   * Enables automatic DML batching in the Spanner JDBC driver while Hibernate flushes a session.
+   * All inserts, updates and deletes that are generated by a flush are then sent to Spanner in a
+   * single ExecuteBatchDml request. The update counts that are returned by Spanner are verified at
+   * the end of the flush, so optimistic locking with {@link jakarta.persistence.Version} continues
+   * to work. The {@link AutoBatchDml} annotation overrides this setting for a single transaction.
+   * Defaults to false.
+   *
+   * @see AutoBatchDml
+   */
+  public static final String AUTO_BATCH_DML = "hibernate.spanner.auto_batch_dml";
+
+  /**
+   * Writes the entity inserts, updates and deletes of the flush that is executed when a read/write
+   * transaction is committed as Spanner mutations instead of DML statements. The mutations are
+   * buffered in the JDBC connection and sent to Spanner together with the Commit request. Defaults
+   * to false.
+   *
+   * <p>The flush falls back to DML statements for all its entity actions when:
+   *
+   * <ul>
+   *   <li>The flush is not executed as part of a commit, for example because {@link
+   *       org.hibernate.Session#flush()} was called, or because a query is executed. Mutations are
+   *       not visible to later statements in the same transaction.
+   *   <li>The flush updates or deletes an entity with a version attribute. Optimistic locking
+   *       requires a conditional update, which is not possible with a mutation.
+   *   <li>The flush inserts an entity whose identifier or other values are generated by the
+   *       database, or writes an entity that uses more than one table, inheritance, column types
+   *       without a direct Spanner equivalent, or (for deletes) a composite primary key.
+   *   <li>The flush inserts, updates or deletes rows in a collection table.
+   * </ul>
+   *
+   * <p>An update that is written as a mutation fails the commit if the row no longer exists,
+   * instead of returning an update count of zero.
+   */
+  public static final String USE_MUTATIONS = "hibernate.spanner.use_mutations";
+
+  /**
+   * Sends the DML statements of the flush that is executed when a read/write transaction is
+   * committed to Spanner when the commit is started, instead of at the end of the flush. The
+   * statements are buffered in the JDBC driver with automatic DML batching, and the driver sends
+   * the buffered statements in one ExecuteBatchDml request directly before the Commit request.
+   * Defaults to false.
+   *
+   * <p>The update counts of the buffered statements are verified when the transaction is committed.
+   * A concurrent modification of a versioned entity therefore fails the commit, instead of the
+   * flush.
+   *
+   * @see #AUTO_BATCH_DML
+   */
+  public static final String LAST_STATEMENT_AT_COMMIT =
+      "hibernate.spanner.last_statement_at_commit";
+
+  /**
+   * Switches a session to default read-only mode when it starts a transaction on a read-only JDBC
+   * connection. Hibernate then does not keep a snapshot of the entities that are loaded by the
+   * transaction for dirty checking, which reduces the memory usage of large read-only transactions
+   * and the time that is needed to flush them. The session is switched back to read/write mode when
+   * the transaction ends. Defaults to false.
+   *
+   * @see org.hibernate.Session#setDefaultReadOnly(boolean)
+   */
+  public static final String READ_ONLY_TRANSACTIONS_DEFAULT_READ_ONLY =
+      "hibernate.spanner.read_only_transactions_default_read_only";
+
+  /**
+   * The directed read options for the read-only transactions that are started by methods with a
+   * {@link TransactionTagInterceptor}, as the JSON representation of the Spanner
+   * DirectedReadOptions message. For example, <code>
+   * {"includeReplicas":{"replicaSelections":[{"type":"READ_ONLY"}]}}</code> sends all reads of
+   * read-only transactions to read-only replicas. A {@link DirectedRead} annotation on the method
+   * that started the transaction takes precedence over this setting. This setting is only read from
+   * the configuration of the session factory, and cannot be set for a single session.
+   *
+   * @see SpannerSessionSettings.Builder#setDirectedRead(String)
+   */
+  public static final String DIRECTED_READ = "hibernate.spanner.directed_read";
+
+  /**
+   * Lets Spanner delete the children of a one-to-many collection when the parent is removed, if the
+   * children are annotated with <code>@Interleaved(cascadeDelete = true)</code> in the parent of
+   * the collection. Hibernate then treats the collection in the same way as a collection with
+   * {@link org.hibernate.annotations.OnDelete}, and only executes a delete statement for the parent
+   * row. Defaults to false.
+   *
+   * <p>If the collection cascades removes, Hibernate still loads the children of a removed parent
+   * and removes them from the session, but it does not execute a delete statement for each child.
+   * This setting can only be set in the configuration of the session factory.
+   */
+  public static final String INTERLEAVED_CASCADE_DELETE =
+      "hibernate.spanner.interleaved_cascade_delete";
+
+  /**
+   * Uses the Spanner connection provider of the Spanner Hibernate dialect instead of the built-in
+   * connection pool of Hibernate when the JDBC URL is a Spanner URL and no other connection
+   * provider, connection pool size, data source or third-party connection pool has been configured.
+   * The Spanner JDBC driver shares one Spanner client with its own session pool between all
+   * connections to the same database, so the connections do not need to be pooled a second time.
+   * This setting can only be set in the configuration of the session factory. Defaults to false.
+   */
+  public static final String USE_SPANNER_CONNECTION_PROVIDER =
+      "hibernate.spanner.use_connection_provider";
+
+  private SpannerSettings() {}
+
+  /** Returns true if the given setting has been set to true in the given configuration. */
+  static boolean getBoolean(Map<String, Object> settings, String name) {
+    Object value = settings.get(name);
+    return value != null && Boolean.parseBoolean(value.toString());
+  }
+}
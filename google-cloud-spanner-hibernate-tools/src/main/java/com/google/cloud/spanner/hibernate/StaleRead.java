@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for executing the reads of a Hibernate read-only transaction as stale reads. Stale
+ * reads can be served by the nearest replica without a round-trip to the leader of the data, which
+ * reduces the latency of reads that do not need the latest data.
+ *
+ * <p>Exactly one of {@link #exactStaleness()} and {@link #maxStaleness()} must be set. The value is
+ * a number followed by a time unit, for example <code>15s</code> or <code>500ms</code>.
+ *
+ * <ul>
+ *   <li>{@link #exactStaleness()} executes all reads in one Spanner read-only transaction at the
+ *       given staleness. All reads see the same consistent snapshot of the database.
+ *   <li>{@link #maxStaleness()} lets Spanner choose the newest timestamp that is at most the given
+ *       staleness for each read. Spanner only supports this for single-use transactions, so each
+ *       statement in the Hibernate transaction is executed in its own single-use read-only
+ *       transaction. Reads in the same Hibernate transaction can see different snapshots.
+ * </ul>
+ *
+ * <p>The staleness is only applied to read-only transactions, for example a method with
+ * {@code @Transactional(readOnly = true)}, and is ignored for read/write transactions. The JDBC
+ * connection is reset automatically when the transaction ends.
+ *
+ * <p>Usage:
+ *
+ * <ol>
+ *   <li>Add the {@link TransactionTagInterceptor} to your Hibernate configuration.
+ *   <li>Add the {@link StaleRead} annotation to a method that is also tagged with
+ *       {@code @Transactional(readOnly = true)}.
+ * </ol>
+ *
+ * <p>The annotation can also be added to an entity class when the Spanner Hibernate dialect is
+ * used. Loading an entity of that class by its identifier, for example with {@link
+ * org.hibernate.Session#find(Class, Object)}, then uses the given staleness if the session does not
+ * have an active transaction. This is useful for reference data that does not change often.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * @Service
+ * public class ConcertService {
+ *   @Transactional(readOnly = true)
+ *   @StaleRead(maxStaleness = "10s")
+ *   public List<Concert> findUpcomingConcerts() {
+ *     // The queries in this method read data that is at most 10 seconds old.
+ *   }
+ * }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface StaleRead {
+
+  /** The exact staleness of all reads in the transaction, for example <code>15s</code>. */
+  String exactStaleness() default "";
+
+  /** The maximum staleness of each read in the transaction, for example <code>10s</code>. */
+  String maxStaleness() default "";
+}
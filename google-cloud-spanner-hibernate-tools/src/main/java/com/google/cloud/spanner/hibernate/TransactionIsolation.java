@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.IsolationLevel;
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.ReadLockMode;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for setting the isolation level and read lock mode of a Hibernate read/write
+ * transaction. The settings are only applied to the annotated transaction, and the default settings
+ * of the JDBC connection are used for all other transactions.
+ *
+ * <p>The default isolation level for all transactions can also be set with the standard Hibernate
+ * setting <code>hibernate.connection.isolation</code>, or with the <code>default_isolation_level
+ * </code> property in the JDBC connection URL.
+ *
+ * <p>Usage:
+ *
+ * <ol>
+ *   <li>Add the {@link TransactionTagInterceptor} to your Hibernate configuration.
+ *   <li>Add the {@link TransactionIsolation} annotation to a method that is also tagged with {@link
+ *       jakarta.transaction.Transactional}.
+ * </ol>
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * @Service
+ * public class VenueService {
+ *   @Transactional
+ *   @TransactionIsolation(IsolationLevel.REPEATABLE_READ)
+ *   public void updateVenueDescriptions() {
+ *     // The reads in this transaction do not take locks.
+ *   }
+ * }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface TransactionIsolation {
+
+  /** The isolation level that should be used for the transaction. */
+  IsolationLevel value();
+
+  /**
+   * The read lock mode that should be used for the transaction. The read lock mode of the JDBC
+   * connection is not changed if this is {@link ReadLockMode#READ_LOCK_MODE_UNSPECIFIED}.
+   */
+  ReadLockMode readLockMode() default ReadLockMode.READ_LOCK_MODE_UNSPECIFIED;
+}
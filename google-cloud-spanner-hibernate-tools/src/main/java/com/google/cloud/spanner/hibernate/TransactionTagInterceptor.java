@@ -42,6 +42,11 @@ import org.hibernate.Interceptor;
  *
  * <p>Auto-tagging of all transactions can be dynamically enabled by starting the application with
  * the system property 'spanner.auto_tag_transactions=true'.
+ *
+ * <p>The interceptor also applies {@link AutoBatchDml}, {@link PartitionedDml}, {@link
+ * TransactionIsolation}, {@link TransactionPriority}, {@link CommitOptions}, {@link StaleRead} and
+ * {@link DirectedRead} annotations that have been placed on the method that started the
+ * transaction.
  */
 public class TransactionTagInterceptor extends AbstractTransactionTagInterceptor {
   public static final String SPANNER_AUTO_TAG_TRANSACTIONS_PROPERTY_NAME =
@@ -80,15 +85,7 @@ public class TransactionTagInterceptor extends AbstractTransactionTagInterceptor
   @Override
   protected String getTag() {
     for (String prefix : classNamePrefixes) {
-      StackFrame stackFrame =
-          StackWalker.getInstance(Option.RETAIN_CLASS_REFERENCE)
-              .walk(
-                  stream ->
-                      stream
-                          .skip(1)
-                          .filter(frame -> frame.getClassName().startsWith(prefix))
-                          .findFirst()
-                          .orElse(null));
+      StackFrame stackFrame = findStackFrame(prefix);
       if (stackFrame != null) {
         return getTagFromStackFrame(prefix, stackFrame);
       }
@@ -96,25 +93,51 @@ public class TransactionTagInterceptor extends AbstractTransactionTagInterceptor
     return null;
   }
 
+  @Override
+  protected Method getTransactionMethod() {
+    for (String prefix : classNamePrefixes) {
+      StackFrame stackFrame = findStackFrame(prefix);
+      if (stackFrame != null) {
+        return getMethodFromStackFrame(stackFrame);
+      }
+    }
+    return null;
+  }
+
+  private static StackFrame findStackFrame(String prefix) {
+    return StackWalker.getInstance(Option.RETAIN_CLASS_REFERENCE)
+        .walk(
+            stream ->
+                stream
+                    .skip(1)
+                    .filter(frame -> frame.getClassName().startsWith(prefix))
+                    .findFirst()
+                    .orElse(null));
+  }
+
   String getTagFromStackFrame(String prefix, StackFrame stackFrame) {
+    Method method = getMethodFromStackFrame(stackFrame);
+    if (method != null && method.isAnnotationPresent(TransactionTag.class)) {
+      TransactionTag transactionTag = method.getAnnotation(TransactionTag.class);
+      return transactionTag.value();
+    } else if (method != null && autoTagTransactions) {
+      return getAutoTagFromStackFrame(prefix, stackFrame);
+    }
+    return null;
+  }
+
+  static Method getMethodFromStackFrame(StackFrame stackFrame) {
     Class<?> declaringClass = stackFrame.getDeclaringClass();
     if (declaringClass.getName().contains("$$")) {
       declaringClass = declaringClass.getSuperclass();
     }
     try {
-      Method method =
-          declaringClass.getDeclaredMethod(
-              stackFrame.getMethodName(), stackFrame.getMethodType().parameterArray());
-      if (method.isAnnotationPresent(TransactionTag.class)) {
-        TransactionTag transactionTag = method.getAnnotation(TransactionTag.class);
-        return transactionTag.value();
-      } else if (autoTagTransactions) {
-        return getAutoTagFromStackFrame(prefix, stackFrame);
-      }
+      return declaringClass.getDeclaredMethod(
+          stackFrame.getMethodName(), stackFrame.getMethodType().parameterArray());
     } catch (NoSuchMethodException ignore) {
       // This should not happen
+      return null;
     }
-    return null;
   }
 
   static String getAutoTagFromStackFrame(String prefix, StackFrame stackFrame) {
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019-2026 Google LLC
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA
+ */
+
+package com.google.cloud.spanner.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.IsolationLevel;
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.ReadLockMode;
+import com.google.cloud.spanner.hibernate.SpannerSessionSettings.RpcPriority;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.TransactionCompletionCallbacks.BeforeCompletionCallback;
+import org.hibernate.jdbc.Work;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+@RunWith(JUnit4.class)
+public class SpannerSessionSettingsTest {
+
+  private static Session mockSession(Connection connection) throws Exception {
+    Session session = mock(Session.class);
+    doAnswer(
+            invocation -> {
+              Work work = invocation.getArgument(0);
+              work.execute(connection);
+              return null;
+            })
+        .when(session)
+        .doWork(any(Work.class));
+    return session;
+  }
+
+  @Test
+  public void testApplyInTransactionResetsAtTransactionEnd() throws Exception {
+    Connection connection = mock(Connection.class);
+    Statement statement = mock(Statement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(connection.getAutoCommit()).thenReturn(false);
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery(anyString())).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+    when(resultSet.getString(1)).thenReturn("false", null, "PRIORITY_MEDIUM", null);
+    Session session = mockSession(connection);
+    when(session.isJoinedToTransaction()).thenReturn(true);
+
+    SpannerSessionSettings.apply(
+        session,
+        SpannerSessionSettings.newBuilder()
+            .setAutoBatchDml(true)
+            .setMaxCommitDelay(Duration.ofMillis(50L))
+            .setRpcPriority(RpcPriority.LOW)
+            .setStatementTimeout(Duration.ofMillis(1500L))
+            .setTransactionTag("my_tag")
+            .build());
+
+    // The Spanner JDBC driver does not support 'set local' for these variables.
+    InOrder inOrder = inOrder(statement);
+    inOrder.verify(statement).execute("set auto_batch_dml=true");
+    inOrder.verify(statement).execute("set max_commit_delay='50ms'");
+    inOrder.verify(statement).execute("set rpc_priority='LOW'");
+    inOrder.verify(statement).execute("set statement_timeout='1500ms'");
+    inOrder.verify(statement).execute("set transaction_tag='my_tag'");
+    verify(statement, never()).executeQuery("show variable transaction_tag");
+    ArgumentCaptor<SessionEventListener> listener =
+        ArgumentCaptor.forClass(SessionEventListener.class);
+    verify(session).addEventListeners(listener.capture());
+
+    // The previous values are restored in auto-commit mode when the transaction ends. The
+    // transaction tag is cleared by the driver.
+    listener.getValue().transactionCompletion(true);
+    inOrder = inOrder(connection, statement);
+    inOrder.verify(connection).setAutoCommit(true);
+    inOrder.verify(statement).execute("set auto_batch_dml=false");
+    inOrder.verify(statement).execute("set max_commit_delay=null");
+    inOrder.verify(statement).execute("set rpc_priority='MEDIUM'");
+    inOrder.verify(statement).execute("set statement_timeout=null");
+    inOrder.verify(connection).setAutoCommit(false);
+    verify(statement, times(1)).execute("set transaction_tag='my_tag'");
+    // The values are only restored once.
+    listener.getValue().jdbcConnectionReleaseStart();
+    verify(statement, times(1)).execute("set rpc_priority='MEDIUM'");
+  }
+
+  @Test
+  public void testQuotesInValuesAreRejected() {
+    SpannerSessionSettings.Builder builder = SpannerSessionSettings.newBuilder();
+    assertThrows(
+        IllegalArgumentException.class, () -> builder.setTransactionTag("tag'; set autocommit"));
+    assertThrows(IllegalArgumentException.class, () -> builder.setDirectedRead("{'a'}"));
+  }
+
+  @Test
+  public void testApplyIsolationLevelInTransaction() throws Exception {
+    Connection connection = mock(Connection.class);
+    Statement statement = mock(Statement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(connection.getAutoCommit()).thenReturn(false);
+    when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_SERIALIZABLE);
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery("show variable read_lock_mode")).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+    when(resultSet.getString(1)).thenReturn("READ_LOCK_MODE_UNSPECIFIED");
+    Session session = mockSession(connection);
+
+    SpannerSessionSettings.apply(
+        session,
+        SpannerSessionSettings.newBuilder()
+            .setIsolationLevel(IsolationLevel.REPEATABLE_READ)
+            .setReadLockMode(ReadLockMode.OPTIMISTIC)
+            .build());
+
+    // The driver has no 'set' statement for the isolation level.
+    InOrder inOrder = inOrder(connection, statement);
+    inOrder.verify(connection).setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+    inOrder.verify(statement).execute("set read_lock_mode='OPTIMISTIC'");
+    ArgumentCaptor<SessionEventListener> listener =
+        ArgumentCaptor.forClass(SessionEventListener.class);
+    verify(session).addEventListeners(listener.capture());
+
+    listener.getValue().jdbcConnectionReleaseStart();
+    verify(connection).setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+    verify(statement).execute("set read_lock_mode='READ_LOCK_MODE_UNSPECIFIED'");
+  }
+
+  @Test
+  public void testApplyInAutoCommitResetsOnRelease() throws Exception {
+    Connection connection = mock(Connection.class);
+    Statement statement = mock(Statement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery("show variable read_only_staleness")).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+    when(resultSet.getString(1)).thenReturn("STRONG");
+    Session session = mockSession(connection);
+
+    SpannerSessionSettings.apply(
+        session,
+        SpannerSessionSettings.newBuilder().setReadOnlyStaleness("MAX_STALENESS 10s").build());
+
+    verify(statement).execute("set read_only_staleness='MAX_STALENESS 10s'");
+    verify(statement, never()).execute("set read_only_staleness='STRONG'");
+    ArgumentCaptor<SessionEventListener> listener =
+        ArgumentCaptor.forClass(SessionEventListener.class);
+    verify(session).addEventListeners(listener.capture());
+    assertEquals(1, listener.getAllValues().size());
+
+    listener.getValue().jdbcConnectionReleaseStart();
+    verify(statement).execute("set read_only_staleness='STRONG'");
+    // The reset is only executed once.
+    listener.getValue().jdbcConnectionReleaseStart();
+    verify(statement).execute("set read_only_staleness='STRONG'");
+  }
+
+  @Test
+  public void testApplyPartitionedDml() throws Exception {
+    Connection connection = mock(Connection.class);
+    Statement statement = mock(Statement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery("show variable autocommit_dml_mode")).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+    when(resultSet.getString(1)).thenReturn("TRANSACTIONAL");
+    Session session = mockSession(connection);
+    SessionImplementor sessionImplementor = mock(SessionImplementor.class);
+    ActionQueue actionQueue = mock(ActionQueue.class);
+    when(session.unwrap(SessionImplementor.class)).thenReturn(sessionImplementor);
+    when(sessionImplementor.getActionQueue()).thenReturn(actionQueue);
+
+    SpannerSessionSettings.applyPartitionedDml(session);
+
+    InOrder inOrder = inOrder(connection, statement);
+    inOrder.verify(connection).setAutoCommit(true);
+    inOrder.verify(statement).execute("set autocommit_dml_mode='PARTITIONED_NON_ATOMIC'");
+    ArgumentCaptor<SessionEventListener> listener =
+        ArgumentCaptor.forClass(SessionEventListener.class);
+    verify(session).addEventListeners(listener.capture());
+    listener.getValue().jdbcConnectionReleaseStart();
+    verify(statement).execute("set autocommit_dml_mode='TRANSACTIONAL'");
+
+    // The connection is switched back to a transaction before Hibernate commits.
+    ArgumentCaptor<BeforeCompletionCallback> callback =
+        ArgumentCaptor.forClass(BeforeCompletionCallback.class);
+    verify(actionQueue).registerCallback(callback.capture());
+    verify(connection, never()).setAutoCommit(false);
+    callback.getValue().doBeforeTransactionCompletion(sessionImplementor);
+    verify(connection).setAutoCommit(false);
+  }
+}